@@ -0,0 +1,74 @@
+package com.lichfaker.scaleview.benchmark;
+
+import com.lichfaker.scaleview.ScaleGeometry;
+import com.lichfaker.scaleview.ScaleModel;
+import com.lichfaker.scaleview.TickLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一帧的刻度布局: 可见范围裁剪 + 刻度线和文字位置计算
+ * <p>
+ * 耗时应只与可见区域和刻度密度有关, 与范围大小无关
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramePlanBenchmark {
+
+    private static final int VIEWPORT = 1080;
+    private static final int PADDING = 72;
+    private static final int POSITIONS = 1024;
+
+    @Param({"1000", "100000", "100000000"})
+    public long range;
+
+    @Param({"2", "8", "20"})
+    public int margin;
+
+    private ScaleGeometry mGeometry;
+    private final TickLayout mLayout = new TickLayout();
+    private long[] mOrigins;
+    private int[] mScrolls;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mGeometry = new ScaleGeometry(ScaleModel.ofInt(0, range), margin);
+        mGeometry.setViewportLength(VIEWPORT);
+        // 模拟虚拟滚动: 原点在范围内随机, 滚动偏移保持在一屏以内
+        Random random = new Random(42);
+        mOrigins = new long[POSITIONS];
+        mScrolls = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            mOrigins[i] = (long) (random.nextDouble() * range);
+            mScrolls[i] = random.nextInt(VIEWPORT);
+        }
+    }
+
+    @Benchmark
+    public int planFrame() {
+        int i = mIndex++ & (POSITIONS - 1);
+        mGeometry.setOrigin(mOrigins[i]);
+        int scroll = mScrolls[i];
+        mGeometry.updateVisibleRange(scroll, scroll + VIEWPORT, PADDING);
+        mLayout.layout(mGeometry, true, 72, -1, 18, 36);
+        return mLayout.getMinorTicks().getCount() + mLayout.getLabelCount();
+    }
+}
@@ -0,0 +1,75 @@
+package com.lichfaker.scaleview.benchmark;
+
+import com.lichfaker.scaleview.DefaultLabelFormatter;
+import com.lichfaker.scaleview.LabelCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刻度文字格式化: 直接格式化, 滑动时的缓存命中和快速跳转时的缓存未命中
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LabelFormatBenchmark {
+
+    private static final int VISIBLE_LABELS = 12;
+
+    @Param({"0", "2"})
+    public int precision;
+
+    private DefaultLabelFormatter mFormatter;
+    private LabelCache mCache;
+    private final char[] mBuffer = new char[32];
+    private int mValue;
+    private int mFrame;
+
+    @Setup
+    public void setUp() {
+        mFormatter = new DefaultLabelFormatter(precision);
+        mCache = new LabelCache(mFormatter);
+        mValue = 1234567;
+    }
+
+    @Benchmark
+    public int format() {
+        return mFormatter.format(mValue++, mBuffer);
+    }
+
+    /**
+     * 一帧内的整刻度文字, 每帧只滑动少量刻度, 大部分命中缓存
+     */
+    @Benchmark
+    public int cachedFrame() {
+        int first = (mFrame++ >> 4) * 10;
+        int length = 0;
+        for (int i = 0; i < VISIBLE_LABELS; i++) {
+            length += mCache.getLength(mCache.lookup(first + i * 10));
+        }
+        return length;
+    }
+
+    /**
+     * 每次都是新的刻度值, 全部未命中
+     */
+    @Benchmark
+    public int cacheMiss() {
+        mValue += 10;
+        return mCache.getLength(mCache.lookup(mValue));
+    }
+}
@@ -0,0 +1,66 @@
+package com.lichfaker.scaleview.benchmark;
+
+import com.lichfaker.scaleview.ScaleGeometry;
+import com.lichfaker.scaleview.ScaleModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 手指抬起和惯性滑动结束时的对齐计算
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"1000", "100000", "100000000"})
+    public long range;
+
+    @Param({"1", "5"})
+    public long step;
+
+    private ScaleGeometry mGeometry;
+    private long[] mScrolls;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mGeometry = new ScaleGeometry(new ScaleModel(0, range * step, step, 2, 1, 10), 8);
+        mGeometry.setViewportLength(1080);
+        Random random = new Random(42);
+        mScrolls = new long[POSITIONS];
+        long length = range * 8;
+        for (int i = 0; i < POSITIONS; i++) {
+            // 包含超出两端的位置
+            mScrolls[i] = (long) ((random.nextDouble() * 1.2 - 0.1) * length);
+        }
+    }
+
+    @Benchmark
+    public long snapScroll() {
+        return mGeometry.snapScroll(mScrolls[mIndex++ & (POSITIONS - 1)]);
+    }
+
+    @Benchmark
+    public long valueAtScroll() {
+        return mGeometry.valueAtScroll(mScrolls[mIndex++ & (POSITIONS - 1)]);
+    }
+}
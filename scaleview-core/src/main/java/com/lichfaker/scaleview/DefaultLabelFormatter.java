@@ -0,0 +1,89 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 默认的刻度文字: 按小数位数显示定点数刻度值
+ */
+public class DefaultLabelFormatter implements LabelFormatter {
+
+    private final int mPrecision;
+
+    public DefaultLabelFormatter() {
+        this(0);
+    }
+
+    /**
+     * @param precision 小数位数, 见{@link ScaleModel#getPrecision()}
+     */
+    public DefaultLabelFormatter(int precision) {
+        mPrecision = precision;
+    }
+
+    @Override
+    public int format(int scale, char[] buffer) {
+        return formatDecimal(scale, mPrecision, buffer, 0);
+    }
+
+    /**
+     * 不产生临时对象地将定点数写入buffer, 例如 (1234, 2) 写入 "12.34"
+     *
+     * @return 写入后的位置
+     */
+    public static int formatDecimal(long value, int precision, char[] buffer, int offset) {
+        if (precision <= 0) {
+            return formatLong(value, buffer, offset);
+        }
+        int pos = offset;
+        if (value < 0) {
+            buffer[pos++] = '-';
+        }
+        // 先写入不含符号的全部数字, 不足precision + 1位时补0
+        int start = pos;
+        long v = value < 0 ? value : -value;
+        int digits = 0;
+        while (v != 0 || digits <= precision) {
+            buffer[pos++] = (char) ('0' - (v % 10));
+            v /= 10;
+            digits++;
+        }
+        reverse(buffer, start, pos - 1);
+        // 插入小数点
+        int point = pos - precision;
+        System.arraycopy(buffer, point, buffer, point + 1, precision);
+        buffer[point] = '.';
+        return pos + 1;
+    }
+
+    /**
+     * 不产生临时对象地将整数写入buffer
+     *
+     * @return 写入后的位置
+     */
+    public static int formatLong(long value, char[] buffer, int offset) {
+        if (value == 0) {
+            buffer[offset] = '0';
+            return offset + 1;
+        }
+        int pos = offset;
+        boolean negative = value < 0;
+        if (negative) {
+            buffer[pos++] = '-';
+        }
+        int start = pos;
+        // 以负数计算, 兼容Long.MIN_VALUE
+        long v = negative ? value : -value;
+        while (v != 0) {
+            buffer[pos++] = (char) ('0' - (v % 10));
+            v /= 10;
+        }
+        reverse(buffer, start, pos - 1);
+        return pos;
+    }
+
+    private static void reverse(char[] buffer, int from, int to) {
+        for (int i = from, j = to; i < j; i++, j--) {
+            char c = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = c;
+        }
+    }
+}
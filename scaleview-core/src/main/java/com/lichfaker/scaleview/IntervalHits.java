@@ -0,0 +1,40 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 一帧中与可见范围重叠的区间, 保存{@link IntervalIndex}中排序后的下标
+ * <p>
+ * 缓冲区和查询用的栈在帧之间复用, 只在容量不足时扩容
+ */
+public final class IntervalHits {
+
+    private int[] mIndices = new int[16];
+    private int mCount;
+    // 遍历隐式二叉树的栈, 每层最多两个元素
+    final int[] mStackNodes = new int[64];
+    final int[] mStackLevels = new int[64];
+    final boolean[] mStackLeftDone = new boolean[64];
+
+    public void reset() {
+        mCount = 0;
+    }
+
+    void add(int index) {
+        if (mCount == mIndices.length) {
+            int[] indices = new int[mIndices.length * 2];
+            System.arraycopy(mIndices, 0, indices, 0, mCount);
+            mIndices = indices;
+        }
+        mIndices[mCount++] = index;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 第i个命中的区间在索引中的下标
+     */
+    public int get(int i) {
+        return mIndices[i];
+    }
+}
@@ -0,0 +1,184 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度区间的索引, 查询与某个刻度范围重叠的区间
+ * <p>
+ * 区间按起点排序后存放在基本类型数组中, 排序后的数组同时作为一棵隐式的二叉搜索树:
+ * 第k层的节点位于下标 (2^k - 1) + i * 2^(k+1), 每个节点记录子树中最大的终点.
+ * 查询时跳过终点都在范围之前的子树, 开销为 O(log n + 命中数), 不分配内存.
+ * 创建时一次性排序和计算(O(n log n), 可以在后台线程执行), 之后不能再修改
+ */
+public final class IntervalIndex {
+
+    private static final int LINEAR_LEVEL = 3; //不超过该层的子树直接顺序扫描
+
+    private final long[] mStarts; //按起点排序
+    private final long[] mEnds;
+    private final long[] mMaxEnds; //以该下标为根的子树中最大的终点
+    private final int[] mIds; //排序前的下标
+    private final int mRootLevel; //没有区间时为-1
+
+    /**
+     * @param starts 每个区间的起点(包含)
+     * @param ends   每个区间的终点(包含), 不小于起点
+     * @param count  区间个数, 只使用数组的前count个元素
+     */
+    public IntervalIndex(long[] starts, long[] ends, int count) {
+        if (count < 0 || count > starts.length || count > ends.length) {
+            throw new IllegalArgumentException("Invalid interval count: " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            if (starts[i] > ends[i]) {
+                throw new IllegalArgumentException("Interval " + i + " ends before it starts: "
+                        + starts[i] + " > " + ends[i]);
+            }
+        }
+        mIds = sortedOrder(starts, count);
+        mStarts = new long[count];
+        mEnds = new long[count];
+        for (int i = 0; i < count; i++) {
+            mStarts[i] = starts[mIds[i]];
+            mEnds[i] = ends[mIds[i]];
+        }
+        mMaxEnds = new long[count];
+        mRootLevel = buildMaxEnds();
+    }
+
+    /**
+     * 自底向上计算每个节点的最大终点, 返回根节点所在的层
+     */
+    private int buildMaxEnds() {
+        int n = mStarts.length;
+        if (n == 0) {
+            return -1;
+        }
+        long[] maxEnds = mMaxEnds;
+        // 叶子是偶数下标; last是最右侧子树的最大终点, 缺少右子节点时代替它
+        int lastIndex = 0;
+        long last = 0;
+        for (int i = 0; i < n; i += 2) {
+            lastIndex = i;
+            last = maxEnds[i] = mEnds[i];
+        }
+        int level = 1;
+        for (; 1L << level <= n; level++) {
+            int half = 1 << (level - 1);
+            int step = half << 2;
+            for (int i = (half << 1) - 1; i < n; i += step) {
+                long left = maxEnds[i - half];
+                long right = i + half < n ? maxEnds[i + half] : last;
+                maxEnds[i] = Math.max(mEnds[i], Math.max(left, right));
+            }
+            lastIndex = ((lastIndex >> level) & 1) != 0 ? lastIndex - half : lastIndex + half;
+            if (lastIndex < n && maxEnds[lastIndex] > last) {
+                last = maxEnds[lastIndex];
+            }
+        }
+        return level - 1;
+    }
+
+    public int size() {
+        return mStarts.length;
+    }
+
+    /**
+     * 排序后第index个区间的起点
+     */
+    public long getStart(int index) {
+        return mStarts[index];
+    }
+
+    public long getEnd(int index) {
+        return mEnds[index];
+    }
+
+    /**
+     * 排序后第index个区间在创建时的下标
+     */
+    public int getId(int index) {
+        return mIds[index];
+    }
+
+    /**
+     * 查询与 [from, to] 重叠的区间, 结果为排序后的下标, 按起点从小到大
+     */
+    public void query(long from, long to, IntervalHits hits) {
+        hits.reset();
+        if (mRootLevel < 0 || from > to) {
+            return;
+        }
+        long[] starts = mStarts;
+        long[] ends = mEnds;
+        int n = starts.length;
+        int[] nodes = hits.mStackNodes;
+        int[] levels = hits.mStackLevels;
+        boolean[] leftDone = hits.mStackLeftDone;
+        int top = 0;
+        nodes[top] = (1 << mRootLevel) - 1;
+        levels[top] = mRootLevel;
+        leftDone[top++] = false;
+        while (top > 0) {
+            top--;
+            int node = nodes[top];
+            int level = levels[top];
+            if (level <= LINEAR_LEVEL) {
+                // 子树很小, 顺序扫描其中的区间
+                int first = node >> level << level;
+                int end = Math.min(first + (1 << (level + 1)) - 1, n);
+                for (int i = first; i < end && starts[i] <= to; i++) {
+                    if (ends[i] >= from) {
+                        hits.add(i);
+                    }
+                }
+            } else if (!leftDone[top]) {
+                // 先处理左子树, 下标可能超出范围, 此时子树中的区间都在右侧
+                int left = node - (1 << (level - 1));
+                leftDone[top++] = true;
+                if (left >= n || mMaxEnds[left] >= from) {
+                    nodes[top] = left;
+                    levels[top] = level - 1;
+                    leftDone[top++] = false;
+                }
+            } else if (node < n && starts[node] <= to) {
+                if (ends[node] >= from) {
+                    hits.add(node);
+                }
+                nodes[top] = node + (1 << (level - 1));
+                levels[top] = level - 1;
+                leftDone[top++] = false;
+            }
+        }
+    }
+
+    /**
+     * 按keys从小到大排列的下标, 相等时保持原来的顺序
+     */
+    static int[] sortedOrder(long[] keys, int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // 归并排序, 避免装箱
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width <<= 1) {
+            for (int lo = 0; lo < count - width; lo += width << 1) {
+                int mid = lo + width;
+                int hi = Math.min(mid + width, count);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    buffer[k++] = keys[order[j]] < keys[order[i]] ? order[j++] : order[i++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < hi) {
+                    buffer[k++] = order[j++];
+                }
+                System.arraycopy(buffer, lo, order, lo, hi - lo);
+            }
+        }
+        return order;
+    }
+}
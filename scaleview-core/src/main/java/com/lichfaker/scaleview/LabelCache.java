@@ -0,0 +1,69 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度文字缓存
+ * <p>
+ * 以刻度值为key的直接映射缓存, 所有缓冲区在创建时分配, 查询与替换都不会再分配内存
+ */
+public final class LabelCache {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final int mShift;
+    private final int[] mKeys;
+    private final boolean[] mValid;
+    private final int[] mLengths;
+    private final char[][] mChars;
+
+    private LabelFormatter mFormatter;
+
+    public LabelCache(LabelFormatter formatter) {
+        this(formatter, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 缓存的文字个数, 向上取整为2的幂
+     */
+    public LabelCache(LabelFormatter formatter, int capacity) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) - 1);
+        int size = 1 << bits;
+        mShift = 32 - bits;
+        mKeys = new int[size];
+        mValid = new boolean[size];
+        mLengths = new int[size];
+        mChars = new char[size][LabelFormatter.MAX_LENGTH];
+        mFormatter = formatter;
+    }
+
+    public void setFormatter(LabelFormatter formatter) {
+        mFormatter = formatter;
+        clear();
+    }
+
+    public void clear() {
+        for (int i = 0; i < mValid.length; i++) {
+            mValid[i] = false;
+        }
+    }
+
+    /**
+     * 查询刻度对应的缓存位置, 未命中时格式化并替换该位置的旧值
+     */
+    public int lookup(int scale) {
+        int slot = (scale * 0x9E3779B9) >>> mShift;
+        if (!mValid[slot] || mKeys[slot] != scale) {
+            mKeys[slot] = scale;
+            mLengths[slot] = mFormatter.format(scale, mChars[slot]);
+            mValid[slot] = true;
+        }
+        return slot;
+    }
+
+    public char[] getChars(int slot) {
+        return mChars[slot];
+    }
+
+    public int getLength(int slot) {
+        return mLengths[slot];
+    }
+}
@@ -0,0 +1,23 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度文字格式化
+ * <p>
+ * 文字直接写入复用的char数组, 绘制时不会产生新的String对象
+ */
+public interface LabelFormatter {
+
+    /**
+     * 单个刻度文字的最大长度
+     */
+    int MAX_LENGTH = 32;
+
+    /**
+     * 将刻度值格式化写入buffer
+     *
+     * @param scale  刻度值
+     * @param buffer 长度为{@link #MAX_LENGTH}的缓冲区
+     * @return 写入的字符数
+     */
+    int format(int scale, char[] buffer);
+}
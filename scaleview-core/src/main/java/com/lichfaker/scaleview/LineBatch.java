@@ -0,0 +1,59 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 线段缓冲区, 按 Canvas.drawLines 的格式保存 [x0, y0, x1, y1, ...]
+ * <p>
+ * 缓冲区在帧之间复用, 只在容量不足时扩容
+ */
+public final class LineBatch {
+
+    private float[] mPoints;
+    private int mCount;
+
+    public LineBatch(int lines) {
+        mPoints = new float[Math.max(lines, 1) * 4];
+    }
+
+    public void reset() {
+        mCount = 0;
+    }
+
+    /**
+     * 保证至少还能放入lines条线段
+     */
+    public void ensureCapacity(int lines) {
+        int required = mCount + lines * 4;
+        if (required > mPoints.length) {
+            float[] points = new float[Math.max(required, mPoints.length * 2)];
+            System.arraycopy(mPoints, 0, points, 0, mCount);
+            mPoints = points;
+        }
+    }
+
+    public void add(float x0, float y0, float x1, float y1) {
+        if (mCount + 4 > mPoints.length) {
+            ensureCapacity(1);
+        }
+        float[] points = mPoints;
+        points[mCount] = x0;
+        points[mCount + 1] = y0;
+        points[mCount + 2] = x1;
+        points[mCount + 3] = y1;
+        mCount += 4;
+    }
+
+    public float[] getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * @return 已保存的float个数
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getLineCount() {
+        return mCount / 4;
+    }
+}
@@ -0,0 +1,180 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度尺上的高亮区间和标记, 例如不可选的范围, 促销范围, "上次下单", "推荐"
+ * <p>
+ * 区间保存在{@link IntervalIndex}中, 标记按刻度排序, 每帧只查询与可见范围重叠的部分.
+ * 由{@link Builder}一次性创建(可以在后台线程执行), 创建后不能修改, 可以在线程之间传递
+ */
+public final class RangeOverlay {
+
+    private final IntervalIndex mRanges;
+    private final int[] mRangeColors; //按创建时的下标
+    private final long[] mMarkerValues; //从小到大
+    private final int[] mMarkerColors;
+    private final String[] mMarkerLabels;
+
+    private RangeOverlay(Builder builder) {
+        mRanges = new IntervalIndex(builder.mRangeStarts, builder.mRangeEnds, builder.mRangeCount);
+        mRangeColors = new int[builder.mRangeCount];
+        System.arraycopy(builder.mRangeColors, 0, mRangeColors, 0, builder.mRangeCount);
+        int count = builder.mMarkerCount;
+        int[] order = IntervalIndex.sortedOrder(builder.mMarkerValues, count);
+        mMarkerValues = new long[count];
+        mMarkerColors = new int[count];
+        mMarkerLabels = new String[count];
+        for (int i = 0; i < count; i++) {
+            mMarkerValues[i] = builder.mMarkerValues[order[i]];
+            mMarkerColors[i] = builder.mMarkerColors[order[i]];
+            mMarkerLabels[i] = builder.mMarkerLabels[order[i]];
+        }
+    }
+
+    /**
+     * 查询与 [from, to] 重叠的区间, 结果为排序后的下标
+     */
+    public void queryRanges(long from, long to, IntervalHits hits) {
+        mRanges.query(from, to, hits);
+    }
+
+    public int getRangeCount() {
+        return mRanges.size();
+    }
+
+    /**
+     * 排序后第index个区间的起点
+     */
+    public long getRangeStart(int index) {
+        return mRanges.getStart(index);
+    }
+
+    public long getRangeEnd(int index) {
+        return mRanges.getEnd(index);
+    }
+
+    public int getRangeColor(int index) {
+        return mRangeColors[mRanges.getId(index)];
+    }
+
+    public int getMarkerCount() {
+        return mMarkerValues.length;
+    }
+
+    public long getMarkerValue(int index) {
+        return mMarkerValues[index];
+    }
+
+    public int getMarkerColor(int index) {
+        return mMarkerColors[index];
+    }
+
+    /**
+     * @return 可能为null, 此时只绘制标记线
+     */
+    public String getMarkerLabel(int index) {
+        return mMarkerLabels[index];
+    }
+
+    /**
+     * 第一个刻度不小于value的标记的下标, 没有时为标记个数
+     */
+    public int firstMarkerAtOrAfter(long value) {
+        long[] values = mMarkerValues;
+        int lo = 0;
+        int hi = values.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 收集区间和标记, 调用{@link #build()}后可以继续使用
+     */
+    public static final class Builder {
+
+        private long[] mRangeStarts = new long[16];
+        private long[] mRangeEnds = new long[16];
+        private int[] mRangeColors = new int[16];
+        private int mRangeCount;
+        private long[] mMarkerValues = new long[16];
+        private int[] mMarkerColors = new int[16];
+        private String[] mMarkerLabels = new String[16];
+        private int mMarkerCount;
+
+        /**
+         * 添加高亮区间
+         *
+         * @param start 起始刻度(包含)
+         * @param end   结束刻度(包含), 不小于start
+         * @param color 填充颜色, 通常是半透明的
+         */
+        public Builder addRange(long start, long end, int color) {
+            if (start > end) {
+                throw new IllegalArgumentException("Range ends before it starts: " + start + " > " + end);
+            }
+            if (mRangeCount == mRangeStarts.length) {
+                int size = mRangeCount * 2;
+                mRangeStarts = copyOf(mRangeStarts, size);
+                mRangeEnds = copyOf(mRangeEnds, size);
+                mRangeColors = copyOf(mRangeColors, size);
+            }
+            mRangeStarts[mRangeCount] = start;
+            mRangeEnds[mRangeCount] = end;
+            mRangeColors[mRangeCount] = color;
+            mRangeCount++;
+            return this;
+        }
+
+        /**
+         * 添加标记
+         *
+         * @param label 标记旁边的文字, 为null时只绘制标记线
+         */
+        public Builder addMarker(long value, int color, String label) {
+            if (mMarkerCount == mMarkerValues.length) {
+                int size = mMarkerCount * 2;
+                mMarkerValues = copyOf(mMarkerValues, size);
+                mMarkerColors = copyOf(mMarkerColors, size);
+                String[] labels = new String[size];
+                System.arraycopy(mMarkerLabels, 0, labels, 0, mMarkerCount);
+                mMarkerLabels = labels;
+            }
+            mMarkerValues[mMarkerCount] = value;
+            mMarkerColors[mMarkerCount] = color;
+            mMarkerLabels[mMarkerCount] = label;
+            mMarkerCount++;
+            return this;
+        }
+
+        public Builder clear() {
+            mRangeCount = 0;
+            mMarkerCount = 0;
+            return this;
+        }
+
+        /**
+         * 排序并建立索引
+         */
+        public RangeOverlay build() {
+            return new RangeOverlay(this);
+        }
+
+        private static long[] copyOf(long[] array, int size) {
+            long[] copy = new long[size];
+            System.arraycopy(array, 0, copy, 0, Math.min(array.length, size));
+            return copy;
+        }
+
+        private static int[] copyOf(int[] array, int size) {
+            int[] copy = new int[size];
+            System.arraycopy(array, 0, copy, 0, Math.min(array.length, size));
+            return copy;
+        }
+    }
+}
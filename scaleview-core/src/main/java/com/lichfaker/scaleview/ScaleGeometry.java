@@ -0,0 +1,365 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度尺在滚动方向上的几何计算: 刻度与像素的换算, 可见范围裁剪和对齐
+ * <p>
+ * 刻度v在内容坐标中的位置为 (v - origin) / step * spacing, 指针位于滚动偏移之后halfCount * margin处.
+ * 刻度线和整刻度都从最小值开始计数, 最小值不需要是间隔的整数倍.
+ * spacing是缩放后的刻度间距, 用1/256像素的定点数表示, 缩放时指针的位置不变.
+ * 缩小时按细节层次只保留间距足够大的刻度线和文字, 每帧绘制的数量与缩放无关.
+ * 设置了{@link SnapPoints}时只能停在这些刻度上, 对齐和可见范围都用二分查找.
+ * 只使用整数运算, 不依赖Android, 可以直接在JVM上测试和做基准测试
+ */
+public final class ScaleGeometry {
+
+    public static final int SPACING_SHIFT = 8;
+    public static final int SPACING_ONE = 1 << SPACING_SHIFT; //间距为1像素时的定点数
+
+    private ScaleModel mModel;
+    private int mMargin; //未缩放时相邻刻度的像素间距, 决定指针的位置
+    private long mSpacing; //缩放后相邻刻度的间距, 1/256像素
+    private long mOrigin; //内容坐标0处的刻度
+    private int mHalfCount; //指针距离可见区域起点的刻度数(未缩放)
+
+    private int mMinTickSpacing; //刻度线之间的最小像素间距, 0表示不抽稀
+    private int mMinMajorSpacing; //整刻度之间的最小像素间距
+    private long mTickStep; //当前层次相邻刻度线的差值
+    private long mMajorStep; //当前层次相邻整刻度的差值
+
+    private long mFirstVisible; //可见区域的第一条刻度线
+    private long mLastVisible; //可见区域的最后一个刻度
+
+    private SnapPoints mSnapSource; //调用者设置的可选刻度
+    private SnapPoints mSnapPoints; //范围内的可选刻度, 为null时每个刻度都可选
+    private int mFirstSnapIndex; //可见区域的第一个可选刻度
+    private int mLastSnapIndex; //可见区域的最后一个可选刻度
+
+    public ScaleGeometry(ScaleModel model, int margin) {
+        mModel = model;
+        mMargin = margin;
+        mSpacing = (long) margin << SPACING_SHIFT;
+        mOrigin = model.getMin();
+        updateLevels();
+    }
+
+    public ScaleModel getModel() {
+        return mModel;
+    }
+
+    /**
+     * 更换刻度模型, 原点重置为最小值
+     */
+    public void setModel(ScaleModel model) {
+        mModel = model;
+        mOrigin = model.getMin();
+        updateSnapPoints();
+        updateLevels();
+    }
+
+    /**
+     * 设置不均匀的可选刻度, 超出范围的部分被忽略
+     *
+     * @param points 为null时恢复每个刻度都可选, 刻度值需要对齐到模型的step
+     */
+    public void setSnapPoints(SnapPoints points) {
+        mSnapSource = points;
+        updateSnapPoints();
+    }
+
+    private void updateSnapPoints() {
+        mSnapPoints = mSnapSource != null ? mSnapSource.within(mModel.getMin(), mModel.getMax()) : null;
+        mFirstSnapIndex = 0;
+        mLastSnapIndex = -1;
+    }
+
+    /**
+     * 范围内的可选刻度, 没有设置或者范围内没有可选刻度时为null
+     */
+    public SnapPoints getSnapPoints() {
+        return mSnapPoints;
+    }
+
+    public int getMargin() {
+        return mMargin;
+    }
+
+    /**
+     * 设置未缩放的刻度间距, 同时取消缩放
+     */
+    public void setMargin(int margin) {
+        mMargin = margin;
+        mSpacing = (long) margin << SPACING_SHIFT;
+        updateLevels();
+    }
+
+    /**
+     * 缩放后的刻度间距, 1/256像素
+     */
+    public long getSpacing() {
+        return mSpacing;
+    }
+
+    /**
+     * 设置缩放后的刻度间距, 指针位置不变. 原来的滚动偏移需要调用者换算
+     *
+     * @param spacing 1/256像素, 至少为1
+     */
+    public void setSpacing(long spacing) {
+        mSpacing = Math.max(1, spacing);
+        updateLevels();
+    }
+
+    /**
+     * 设置细节层次. 缩小后刻度线或整刻度的间距小于给定值时, 按1, 5, 10, 50, 100...的倍数跳过刻度
+     *
+     * @param minTickSpacing  刻度线之间的最小像素间距, 0表示不抽稀
+     * @param minMajorSpacing 整刻度(文字)之间的最小像素间距
+     */
+    public void setLevelOfDetail(int minTickSpacing, int minMajorSpacing) {
+        mMinTickSpacing = Math.max(0, minTickSpacing);
+        mMinMajorSpacing = Math.max(0, minMajorSpacing);
+        updateLevels();
+    }
+
+    /**
+     * 根据当前间距选择刻度线和整刻度的层次
+     */
+    private void updateLevels() {
+        long steps = Math.max(1, mModel.getStepCount());
+        long minorMultiple = 1;
+        while (true) {
+            // 超过整个范围后不再放大, 最多只剩一条刻度线
+            long interval = ScaleMath.multiplySaturated(mModel.getMinorInterval(), minorMultiple);
+            if (interval >= steps || !isDenser(interval, mMinTickSpacing)) {
+                break;
+            }
+            long next = nextLevel(minorMultiple);
+            if (next == minorMultiple) {
+                break;
+            }
+            minorMultiple = next;
+        }
+        long tickInterval = ScaleMath.multiplySaturated(mModel.getMinorInterval(), minorMultiple);
+        long majorMultiple = 1;
+        while (true) {
+            // 整刻度必须落在刻度线上
+            long interval = ScaleMath.multiplySaturated(mModel.getMajorInterval(), majorMultiple);
+            if (interval % tickInterval == 0 && (interval >= steps || !isDenser(interval, mMinMajorSpacing))) {
+                break;
+            }
+            long next = nextLevel(majorMultiple);
+            if (next == majorMultiple) {
+                break;
+            }
+            majorMultiple = next;
+        }
+        mTickStep = ScaleMath.multiplySaturated(tickInterval, mModel.getStep());
+        mMajorStep = ScaleMath.multiplySaturated(
+                ScaleMath.multiplySaturated(mModel.getMajorInterval(), majorMultiple), mModel.getStep());
+    }
+
+    public int getMinTickSpacing() {
+        return mMinTickSpacing;
+    }
+
+    public int getMinMajorSpacing() {
+        return mMinMajorSpacing;
+    }
+
+    /**
+     * 至少跨过pixels像素的刻度差值, 对齐到step, 最小为一个step
+     */
+    public long valueSpan(int pixels) {
+        long steps = Math.max(1, ScaleMath.ceilDiv((long) pixels << SPACING_SHIFT, mSpacing));
+        return ScaleMath.multiplySaturated(steps, mModel.getStep());
+    }
+
+    /**
+     * 每隔interval个刻度绘制时, 像素间距是否小于minSpacing
+     */
+    private boolean isDenser(long interval, int minSpacing) {
+        return ScaleMath.multiplySaturated(interval, mSpacing) < (long) minSpacing << SPACING_SHIFT;
+    }
+
+    /**
+     * 层次的倍数依次为1, 5, 10, 50, 100..., 前一层总是后一层的约数
+     */
+    private static long nextLevel(long multiple) {
+        long next = isPowerOfTen(multiple) ? multiple * 5 : multiple * 2;
+        return next > Long.MAX_VALUE / 100 ? multiple : next;
+    }
+
+    private static boolean isPowerOfTen(long value) {
+        while (value >= 10 && value % 10 == 0) {
+            value /= 10;
+        }
+        return value == 1;
+    }
+
+    /**
+     * 当前层次相邻刻度线的差值
+     */
+    public long getTickStep() {
+        return mTickStep;
+    }
+
+    /**
+     * 当前层次相邻整刻度的差值
+     */
+    public long getMajorStep() {
+        return mMajorStep;
+    }
+
+    /**
+     * 在当前层次是否为整刻度, 整刻度从最小值开始计数
+     */
+    public boolean isMajor(long value) {
+        return ScaleMath.floorMod(value - mModel.getMin(), mMajorStep) == 0;
+    }
+
+    /**
+     * 不小于value的第一个从最小值开始每隔step的刻度
+     */
+    public long alignUp(long value, long step) {
+        long min = mModel.getMin();
+        return min + ScaleMath.ceilDiv(value - min, step) * step;
+    }
+
+    public long getOrigin() {
+        return mOrigin;
+    }
+
+    /**
+     * @param origin 需要对齐到刻度
+     */
+    public void setOrigin(long origin) {
+        mOrigin = origin;
+    }
+
+    public int getHalfCount() {
+        return mHalfCount;
+    }
+
+    /**
+     * 指针在可见区域中的像素位置
+     */
+    public int getPointerOffset() {
+        return mHalfCount * mMargin;
+    }
+
+    /**
+     * 根据滚动方向上的可见长度计算指针位置
+     */
+    public void setViewportLength(int length) {
+        mHalfCount = mMargin > 0 ? length / mMargin / 2 : 0;
+    }
+
+    /**
+     * 刻度对应的内容坐标, 与{@link #valueAtScroll(long)}一样四舍五入, 间距不小于1像素时两者互逆
+     */
+    public long positionOf(long value) {
+        long steps = ScaleMath.floorDiv(value - mOrigin, mModel.getStep());
+        return toPixels(ScaleMath.multiplySaturated(steps, mSpacing));
+    }
+
+    /**
+     * 指针指向该刻度时的滚动偏移
+     */
+    public long scrollFor(long value) {
+        return positionOf(value) - getPointerOffset();
+    }
+
+    /**
+     * 滚动偏移对应的指针刻度, 四舍五入到最近的刻度, 不限制范围
+     */
+    public long valueAtScroll(long scroll) {
+        long position = scroll + getPointerOffset();
+        return mOrigin + ScaleMath.roundDiv(position << SPACING_SHIFT, mSpacing) * mModel.getStep();
+    }
+
+    /**
+     * 限制在范围内并对齐到最近的可选刻度
+     */
+    public long snap(long value) {
+        SnapPoints points = mSnapPoints;
+        return points != null ? points.nearest(value) : mModel.snap(value);
+    }
+
+    /**
+     * 将滚动偏移对齐到范围内最近的可选刻度
+     */
+    public long snapScroll(long scroll) {
+        return scrollFor(snap(valueAtScroll(scroll)));
+    }
+
+    /**
+     * 指针从最小刻度开始滑过的像素
+     */
+    public long logicalOffset(long scroll) {
+        long steps = ScaleMath.floorDiv(mOrigin - mModel.getMin(), mModel.getStep());
+        return toPixels(ScaleMath.multiplySaturated(steps, mSpacing)) + scroll;
+    }
+
+    /**
+     * 定点数四舍五入到像素, .5时向正方向取整, 饱和的值不再加半像素以免溢出
+     */
+    private static long toPixels(long fixed) {
+        return fixed < Long.MAX_VALUE - SPACING_ONE ? (fixed + (SPACING_ONE >> 1)) >> SPACING_SHIFT
+                : fixed >> SPACING_SHIFT;
+    }
+
+    /**
+     * 计算内容坐标[start, end]内的刻度范围, 两侧各扩展padding像素
+     */
+    public void updateVisibleRange(int start, int end, int padding) {
+        if (mMargin <= 0) {
+            mFirstVisible = mModel.getMin();
+            mLastVisible = mFirstVisible - 1;
+            mFirstSnapIndex = 0;
+            mLastSnapIndex = -1;
+            return;
+        }
+        long step = mModel.getStep();
+        long first = mOrigin + ScaleMath.ceilDiv(((long) start - padding) << SPACING_SHIFT, mSpacing) * step;
+        long last = mOrigin + ScaleMath.floorDiv(((long) end + padding) << SPACING_SHIFT, mSpacing) * step;
+        first = Math.max(mModel.getMin(), first);
+        mFirstVisible = alignUp(first, mTickStep);
+        mLastVisible = Math.min(mModel.getMax(), last);
+        if (mSnapPoints != null) {
+            mFirstSnapIndex = mSnapPoints.ceilingIndex(first);
+            mLastSnapIndex = mSnapPoints.floorIndex(mLastVisible);
+        }
+    }
+
+    public long getFirstVisible() {
+        return mFirstVisible;
+    }
+
+    public long getLastVisible() {
+        return mLastVisible;
+    }
+
+    /**
+     * 可见区域第一个可选刻度的下标, 只在设置了可选刻度时有效
+     */
+    public int getFirstSnapIndex() {
+        return mFirstSnapIndex;
+    }
+
+    /**
+     * 可见区域最后一个可选刻度的下标, 没有可见的可选刻度时小于getFirstSnapIndex()
+     */
+    public int getLastSnapIndex() {
+        return mLastSnapIndex;
+    }
+
+    /**
+     * 可见范围内需要绘制的刻度线数量
+     */
+    public int getVisibleTickCount() {
+        if (mLastVisible < mFirstVisible) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (mLastVisible - mFirstVisible) / mTickStep + 1);
+    }
+}
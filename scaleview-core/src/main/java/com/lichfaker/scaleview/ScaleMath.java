@@ -0,0 +1,54 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度计算用到的整数运算, 结果向下取整, 与 Math.floorDiv 一致
+ */
+public final class ScaleMath {
+
+    private ScaleMath() {
+    }
+
+    public static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    public static long ceilDiv(long x, long y) {
+        return -floorDiv(-x, y);
+    }
+
+    public static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    /**
+     * 四舍五入的除法, .5时向正方向取整
+     */
+    public static long roundDiv(long x, long y) {
+        return floorDiv(2 * x + y, 2 * y);
+    }
+
+    public static long clamp(long value, long min, long max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    /**
+     * 乘法, 溢出时返回同符号的最大值
+     */
+    public static long multiplySaturated(long a, long b) {
+        long result = a * b;
+        if (((Math.abs(a) | Math.abs(b)) >>> 31) != 0) {
+            if ((b != 0 && result / b != a) || (a == Long.MIN_VALUE && b == -1)) {
+                return (a ^ b) < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            }
+        }
+        return result;
+    }
+
+    public static int clampToInt(long value) {
+        return (int) clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,145 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 刻度模型: 用定点数描述刻度的范围, 间隔和小数位数
+ * <p>
+ * 所有刻度值都是放大了10^precision倍的整数, 例如 precision = 2 时 1234 表示 12.34.
+ * 刻度从min开始每隔step一个, 从min开始每隔minorInterval个刻度绘制一条刻度线, 每隔majorInterval个为整刻度.
+ * 刻度与像素之间的换算和刻度线的布局见{@link ScaleGeometry}和{@link TickLayout}, 只使用整数运算
+ */
+public final class ScaleModel {
+
+    public static final int MAX_PRECISION = 18;
+
+    private final long mMin;
+    private final long mMax;
+    private final long mStep;
+    private final int mPrecision;
+    private final int mMinorInterval;
+    private final int mMajorInterval;
+
+    /**
+     * @param min           最小值
+     * @param max           最大值, 会向下对齐到刻度
+     * @param step          相邻刻度的差值
+     * @param precision     小数位数
+     * @param minorInterval 每隔多少个step绘制一条刻度线
+     * @param majorInterval 每隔多少个step绘制一条整刻度线, 需为minorInterval的整数倍
+     */
+    public ScaleModel(long min, long max, long step, int precision, int minorInterval, int majorInterval) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("step must be positive: " + step);
+        }
+        if (max < min) {
+            throw new IllegalArgumentException("max < min: " + max + " < " + min);
+        }
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision out of range: " + precision);
+        }
+        if (minorInterval <= 0 || majorInterval <= 0 || majorInterval % minorInterval != 0) {
+            throw new IllegalArgumentException("invalid intervals: " + minorInterval + "/" + majorInterval);
+        }
+        mMin = min;
+        mMax = min + (max - min) / step * step;
+        mStep = step;
+        mPrecision = precision;
+        mMinorInterval = minorInterval;
+        mMajorInterval = majorInterval;
+    }
+
+    /**
+     * 整数刻度, 每个刻度都绘制, 每10个为整刻度
+     */
+    public static ScaleModel ofInt(long min, long max) {
+        return new ScaleModel(min, max, 1, 0, 1, 10);
+    }
+
+    public long getMin() {
+        return mMin;
+    }
+
+    public long getMax() {
+        return mMax;
+    }
+
+    public long getStep() {
+        return mStep;
+    }
+
+    public int getPrecision() {
+        return mPrecision;
+    }
+
+    public int getMinorInterval() {
+        return mMinorInterval;
+    }
+
+    public int getMajorInterval() {
+        return mMajorInterval;
+    }
+
+    /**
+     * 相邻两条刻度线的差值
+     */
+    public long getTickStep() {
+        return mStep * mMinorInterval;
+    }
+
+    /**
+     * 相邻两条整刻度线的差值
+     */
+    public long getMajorStep() {
+        return mStep * mMajorInterval;
+    }
+
+    /**
+     * 从min到max的刻度间隔数
+     */
+    public long getStepCount() {
+        return (mMax - mMin) / mStep;
+    }
+
+    public long clamp(long value) {
+        return ScaleMath.clamp(value, mMin, mMax);
+    }
+
+    /**
+     * 限制在范围内并四舍五入到最近的刻度
+     */
+    public long snap(long value) {
+        long clamped = clamp(value);
+        return Math.min(mMax, mMin + ScaleMath.roundDiv(clamped - mMin, mStep) * mStep);
+    }
+
+    /**
+     * 是否需要绘制刻度线
+     */
+    public boolean isTick(long value) {
+        return ScaleMath.floorMod(value - mMin, getTickStep()) == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScaleModel)) {
+            return false;
+        }
+        ScaleModel other = (ScaleModel) o;
+        return mMin == other.mMin && mMax == other.mMax && mStep == other.mStep
+                && mPrecision == other.mPrecision
+                && mMinorInterval == other.mMinorInterval && mMajorInterval == other.mMajorInterval;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (mMin ^ (mMin >>> 32));
+        result = 31 * result + (int) (mMax ^ (mMax >>> 32));
+        result = 31 * result + (int) (mStep ^ (mStep >>> 32));
+        result = 31 * result + mPrecision;
+        result = 31 * result + mMinorInterval;
+        result = 31 * result + mMajorInterval;
+        return result;
+    }
+}
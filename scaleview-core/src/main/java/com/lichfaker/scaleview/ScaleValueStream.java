@@ -0,0 +1,184 @@
+package com.lichfaker.scaleview;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 当前刻度的数据流, 只保留最新的值, 订阅者可以在任意线程读取或等待
+ * <p>
+ * 值和版本号打包在一个AtomicLong中, 发布和读取都不加锁, 发布的线程(通常是UI线程)不会被订阅者阻塞.
+ * 订阅者处理得慢时直接跳过中间的值, 只拿到最新的刻度
+ */
+public final class ScaleValueStream {
+
+    private final AtomicLong mState = new AtomicLong(); //高32位为版本号, 低32位为刻度, 版本号为0时还没有值
+    // 正在等待的线程, 登记和注销时复制数组, 发布时按下标遍历快照, 不分配内存
+    private final AtomicReference<Thread[]> mWaiters = new AtomicReference<>(new Thread[0]);
+
+    /**
+     * 发布新的刻度, 可以在任意线程调用, 不会阻塞
+     *
+     * @return 刻度是否改变, 与最新的值相同时不增加版本号, 也不唤醒订阅者
+     */
+    public boolean publish(int value) {
+        long state;
+        long next;
+        do {
+            state = mState.get();
+            int version = versionOf(state);
+            if (version != 0 && (int) state == value) {
+                return false;
+            }
+            int nextVersion = version + 1 != 0 ? version + 1 : 1;
+            next = ((long) nextVersion << 32) | (value & 0xFFFFFFFFL);
+        } while (!mState.compareAndSet(state, next));
+        Thread[] waiters = mWaiters.get();
+        for (int i = 0; i < waiters.length; i++) {
+            LockSupport.unpark(waiters[i]);
+        }
+        return true;
+    }
+
+    public boolean hasValue() {
+        return versionOf(mState.get()) != 0;
+    }
+
+    /**
+     * 最新的刻度, 还没有值时为0
+     */
+    public int getValue() {
+        return (int) mState.get();
+    }
+
+    /**
+     * 每次刻度改变时加1, 还没有值时为0
+     */
+    public int getVersion() {
+        return versionOf(mState.get());
+    }
+
+    /**
+     * 创建一个订阅, 从当前的值开始读取
+     */
+    public Subscription subscribe() {
+        return new Subscription(this);
+    }
+
+    private static int versionOf(long state) {
+        return (int) (state >>> 32);
+    }
+
+    /**
+     * 等待版本号不再是seen, 先登记再检查, 发布者改变版本号后一定能看到登记的线程
+     *
+     * @param nanos 小于0时一直等待
+     * @return 超时时为false
+     */
+    private boolean awaitChange(int seen, long nanos) throws InterruptedException {
+        if (versionOf(mState.get()) != seen) {
+            return true;
+        }
+        Thread current = Thread.currentThread();
+        long deadline = System.nanoTime() + nanos;
+        addWaiter(current);
+        try {
+            while (versionOf(mState.get()) == seen) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (nanos < 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+            return true;
+        } finally {
+            removeWaiter(current);
+        }
+    }
+
+    private void addWaiter(Thread thread) {
+        Thread[] waiters;
+        Thread[] next;
+        do {
+            waiters = mWaiters.get();
+            next = new Thread[waiters.length + 1];
+            System.arraycopy(waiters, 0, next, 0, waiters.length);
+            next[waiters.length] = thread;
+        } while (!mWaiters.compareAndSet(waiters, next));
+    }
+
+    private void removeWaiter(Thread thread) {
+        Thread[] waiters;
+        Thread[] next;
+        do {
+            waiters = mWaiters.get();
+            int index = -1;
+            for (int i = 0; i < waiters.length; i++) {
+                if (waiters[i] == thread) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            next = new Thread[waiters.length - 1];
+            System.arraycopy(waiters, 0, next, 0, index);
+            System.arraycopy(waiters, index + 1, next, index, next.length - index);
+        } while (!mWaiters.compareAndSet(waiters, next));
+    }
+
+    /**
+     * 一个订阅者的读取位置, 只能在一个线程中使用, 不同的线程各自订阅
+     */
+    public static final class Subscription {
+
+        private final ScaleValueStream mStream;
+        private int mSeenVersion; //已经读取的版本号
+
+        Subscription(ScaleValueStream stream) {
+            mStream = stream;
+        }
+
+        /**
+         * 上次读取之后是否有新的刻度
+         */
+        public boolean hasUpdate() {
+            return mStream.getVersion() != mSeenVersion;
+        }
+
+        /**
+         * 读取最新的刻度并标记为已读, 不等待
+         */
+        public int poll() {
+            long state = mStream.mState.get();
+            mSeenVersion = versionOf(state);
+            return (int) state;
+        }
+
+        /**
+         * 等待新的刻度并读取, 等待期间错过的中间值会被跳过
+         */
+        public int take() throws InterruptedException {
+            mStream.awaitChange(mSeenVersion, -1);
+            return poll();
+        }
+
+        /**
+         * 等待新的刻度, 不标记为已读
+         *
+         * @return 超时前是否有新的刻度
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return mStream.awaitChange(mSeenVersion, Math.max(0, unit.toNanos(timeout)));
+        }
+    }
+}
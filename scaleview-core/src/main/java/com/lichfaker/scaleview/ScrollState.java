@@ -0,0 +1,66 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 滚动状态: 滚动偏移, 指针处的刻度, 滑动方向和可以滚动的边界
+ * <p>
+ * 由触摸和Scroller改变滚动偏移时更新, 绘制时只读取. 边界每次按当前的原点和间距重新计算,
+ * 缩放或移动原点之后拖动的边界判断依然准确
+ */
+public final class ScrollState {
+
+    private long mScroll;
+    private long mValue;
+    private int mDirection; //最近一次刻度变化的方向, 1为增大
+    private long mMinScroll; //指针指向最小刻度时的滚动偏移
+    private long mMaxScroll; //指针指向最大刻度时的滚动偏移
+
+    /**
+     * 滚动偏移或geometry改变后更新
+     *
+     * @return 指针处的刻度是否改变
+     */
+    public boolean update(ScaleGeometry geometry, long scroll) {
+        ScaleModel model = geometry.getModel();
+        mMinScroll = geometry.scrollFor(model.getMin());
+        mMaxScroll = geometry.scrollFor(model.getMax());
+        mScroll = scroll;
+        long value = geometry.valueAtScroll(scroll);
+        if (value == mValue) {
+            return false;
+        }
+        // 移动原点和缩放时刻度不变, 方向只随刻度变化
+        mDirection = value > mValue ? 1 : -1;
+        mValue = value;
+        return true;
+    }
+
+    public long getScroll() {
+        return mScroll;
+    }
+
+    /**
+     * 指针处的刻度, 四舍五入到最近的刻度, 没有限制在范围内
+     */
+    public long getValue() {
+        return mValue;
+    }
+
+    public int getDirection() {
+        return mDirection;
+    }
+
+    public long getMinScroll() {
+        return mMinScroll;
+    }
+
+    public long getMaxScroll() {
+        return mMaxScroll;
+    }
+
+    /**
+     * 限制在最小和最大刻度对应的滚动偏移之间
+     */
+    public float clamp(float scroll) {
+        return Math.max(mMinScroll, Math.min(mMaxScroll, scroll));
+    }
+}
@@ -0,0 +1,92 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 一帧中可见的数据桶: 每个桶在滚动方向上的起点, 以及桶内的最小值和最大值
+ * <p>
+ * 缓冲区在帧之间复用, 只在容量不足时扩容
+ */
+public final class SeriesBuckets {
+
+    private float[] mPositions = new float[64];
+    private float[] mMins = new float[64];
+    private float[] mMaxs = new float[64];
+    private int mCount;
+    private float mBucketWidth;
+    private int mLevel;
+
+    public void reset() {
+        mCount = 0;
+        mBucketWidth = 0;
+        mLevel = 0;
+    }
+
+    /**
+     * 保证至少还能放入count个桶
+     */
+    public void ensureCapacity(int count) {
+        int required = mCount + count;
+        if (required > mPositions.length) {
+            int size = Math.max(required, mPositions.length * 2);
+            float[] positions = new float[size];
+            float[] mins = new float[size];
+            float[] maxs = new float[size];
+            System.arraycopy(mPositions, 0, positions, 0, mCount);
+            System.arraycopy(mMins, 0, mins, 0, mCount);
+            System.arraycopy(mMaxs, 0, maxs, 0, mCount);
+            mPositions = positions;
+            mMins = mins;
+            mMaxs = maxs;
+        }
+    }
+
+    public void add(float position, float min, float max) {
+        if (mCount == mPositions.length) {
+            ensureCapacity(1);
+        }
+        mPositions[mCount] = position;
+        mMins[mCount] = min;
+        mMaxs[mCount] = max;
+        mCount++;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * 第index个桶起点的内容坐标
+     */
+    public float getPosition(int index) {
+        return mPositions[index];
+    }
+
+    public float getMin(int index) {
+        return mMins[index];
+    }
+
+    public float getMax(int index) {
+        return mMaxs[index];
+    }
+
+    /**
+     * 每个桶在滚动方向上的像素宽度
+     */
+    public float getBucketWidth() {
+        return mBucketWidth;
+    }
+
+    void setBucketWidth(float width) {
+        mBucketWidth = width;
+    }
+
+    /**
+     * 使用的金字塔层次, 每个桶合并2^level个点
+     */
+    public int getLevel() {
+        return mLevel;
+    }
+
+    void setLevel(int level) {
+        mLevel = level;
+    }
+}
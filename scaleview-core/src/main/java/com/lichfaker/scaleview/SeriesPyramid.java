@@ -0,0 +1,147 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 沿刻度分布的数据序列的多分辨率最小/最大值金字塔
+ * <p>
+ * 第i个点对应刻度 firstValue + i * valueStep. 第0层就是原始数据, 第k层的每个桶合并2^k个点.
+ * 创建时一次性计算全部层次(O(n), 可以在后台线程执行), 之后按缩放选择每个桶至少1像素的层次,
+ * 每帧只读取可见范围内的桶, 开销与可见像素数有关, 与点数无关.
+ * 原始数组不会复制, 创建后不能再修改
+ */
+public final class SeriesPyramid {
+
+    private final long mFirstValue;
+    private final long mValueStep;
+    private final int mSize;
+    private final float[][] mMins; //mMins[0]和mMaxs[0]都是原始数据
+    private final float[][] mMaxs;
+
+    /**
+     * @param firstValue 第一个点对应的刻度
+     * @param valueStep  相邻两点的刻度差, 大于0
+     * @param values     每个点的数据
+     */
+    public SeriesPyramid(long firstValue, long valueStep, float[] values) {
+        if (valueStep <= 0) {
+            throw new IllegalArgumentException("valueStep must be positive: " + valueStep);
+        }
+        mFirstValue = firstValue;
+        mValueStep = valueStep;
+        mSize = values.length;
+        int levels = 1;
+        for (int size = mSize; size > 1; size = (size + 1) >> 1) {
+            levels++;
+        }
+        mMins = new float[levels][];
+        mMaxs = new float[levels][];
+        mMins[0] = values;
+        mMaxs[0] = values;
+        for (int level = 1; level < levels; level++) {
+            float[] lowerMin = mMins[level - 1];
+            float[] lowerMax = mMaxs[level - 1];
+            int lowerSize = lowerMin.length;
+            int size = (lowerSize + 1) >> 1;
+            float[] mins = new float[size];
+            float[] maxs = new float[size];
+            for (int i = 0; i < size; i++) {
+                int a = i << 1;
+                int b = Math.min(a + 1, lowerSize - 1);
+                mins[i] = Math.min(lowerMin[a], lowerMin[b]);
+                maxs[i] = Math.max(lowerMax[a], lowerMax[b]);
+            }
+            mMins[level] = mins;
+            mMaxs[level] = maxs;
+        }
+    }
+
+    /**
+     * 整数数据, 先转换为float再建立金字塔
+     */
+    public static SeriesPyramid of(long firstValue, long valueStep, long[] values) {
+        float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = values[i];
+        }
+        return new SeriesPyramid(firstValue, valueStep, floats);
+    }
+
+    public long getFirstValue() {
+        return mFirstValue;
+    }
+
+    public long getValueStep() {
+        return mValueStep;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int getLevelCount() {
+        return mMins.length;
+    }
+
+    /**
+     * 全部数据的最小值, 没有数据时为0
+     */
+    public float getMin() {
+        return mSize == 0 ? 0 : mMins[mMins.length - 1][0];
+    }
+
+    /**
+     * 全部数据的最大值, 没有数据时为0
+     */
+    public float getMax() {
+        return mSize == 0 ? 0 : mMaxs[mMaxs.length - 1][0];
+    }
+
+    /**
+     * 第level层第index个桶的最小值
+     */
+    public float getMin(int level, int index) {
+        return mMins[level][index];
+    }
+
+    /**
+     * 第level层第index个桶的最大值
+     */
+    public float getMax(int level, int index) {
+        return mMaxs[level][index];
+    }
+
+    /**
+     * 取出刻度范围[first, last]内的桶, 选择的层次使每个桶在当前间距下至少占1像素
+     *
+     * @param geometry 当前的刻度与像素换算
+     * @param out      输出的桶, 会先清空
+     */
+    public void query(ScaleGeometry geometry, long first, long last, SeriesBuckets out) {
+        out.reset();
+        if (mSize == 0 || last < first) {
+            return;
+        }
+        long start = Math.max(0, ScaleMath.floorDiv(first - mFirstValue, mValueStep));
+        long end = Math.min(mSize - 1, ScaleMath.ceilDiv(last - mFirstValue, mValueStep));
+        if (start > end) {
+            return;
+        }
+        // 相邻两点的间距, 1/256像素
+        long pointSpacing = Math.max(1, ScaleMath.multiplySaturated(mValueStep, geometry.getSpacing())
+                / geometry.getModel().getStep());
+        int level = 0;
+        while (level < mMins.length - 1 && (pointSpacing << level) < ScaleGeometry.SPACING_ONE) {
+            level++;
+        }
+        int firstBucket = (int) (start >> level);
+        int lastBucket = (int) (end >> level);
+        out.ensureCapacity(lastBucket - firstBucket + 1);
+        float[] mins = mMins[level];
+        float[] maxs = mMaxs[level];
+        long bucketStep = mValueStep << level;
+        for (int i = firstBucket; i <= lastBucket; i++) {
+            out.add(geometry.positionOf(mFirstValue + i * bucketStep), mins[i], maxs[i]);
+        }
+        out.setBucketWidth((float) ScaleMath.multiplySaturated(pointSpacing, 1L << level) / ScaleGeometry.SPACING_ONE);
+        out.setLevel(level);
+    }
+}
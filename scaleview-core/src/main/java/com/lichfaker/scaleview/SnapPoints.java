@@ -0,0 +1,118 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 不均匀的可选刻度, 例如只允许 1, 2, 5, 12, 24, 48 这些包装规格
+ * <p>
+ * 刻度保存在严格递增的long数组中, 对齐, 查找可见范围都用二分查找, 不装箱也不逐个遍历.
+ * 创建时复制传入的数组, 之后不能再修改, 可以在多个刻度尺之间共享
+ */
+public final class SnapPoints {
+
+    private final long[] mValues;
+
+    private SnapPoints(long[] values) {
+        mValues = values;
+    }
+
+    /**
+     * @param values 严格递增的刻度值, 至少一个
+     */
+    public static SnapPoints of(long[] values) {
+        checkSorted(values.length, values, null);
+        return new SnapPoints(values.clone());
+    }
+
+    /**
+     * @param values 严格递增的刻度值, 至少一个
+     */
+    public static SnapPoints of(int[] values) {
+        checkSorted(values.length, null, values);
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return new SnapPoints(longs);
+    }
+
+    private static void checkSorted(int length, long[] longs, int[] ints) {
+        if (length == 0) {
+            throw new IllegalArgumentException("no snap points");
+        }
+        for (int i = 1; i < length; i++) {
+            long prev = longs != null ? longs[i - 1] : ints[i - 1];
+            long value = longs != null ? longs[i] : ints[i];
+            if (value <= prev) {
+                throw new IllegalArgumentException("snap points not strictly increasing at " + i
+                        + ": " + prev + ", " + value);
+            }
+        }
+    }
+
+    public int size() {
+        return mValues.length;
+    }
+
+    public long get(int index) {
+        return mValues[index];
+    }
+
+    /**
+     * 只保留[min, max]之内的刻度, 全部在范围内时返回自身
+     *
+     * @return 范围内没有刻度时返回null
+     */
+    public SnapPoints within(long min, long max) {
+        int from = ceilingIndex(min);
+        int to = floorIndex(max);
+        if (from > to) {
+            return null;
+        }
+        if (from == 0 && to == mValues.length - 1) {
+            return this;
+        }
+        long[] values = new long[to - from + 1];
+        System.arraycopy(mValues, from, values, 0, values.length);
+        return new SnapPoints(values);
+    }
+
+    /**
+     * 第一个不小于value的刻度的下标, 没有时返回size()
+     */
+    public int ceilingIndex(long value) {
+        int low = 0;
+        int high = mValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mValues[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 最后一个不大于value的刻度的下标, 没有时返回-1
+     */
+    public int floorIndex(long value) {
+        int index = ceilingIndex(value);
+        return index < mValues.length && mValues[index] == value ? index : index - 1;
+    }
+
+    /**
+     * 离value最近的刻度, 距离相同时取较大的一个
+     */
+    public long nearest(long value) {
+        int index = ceilingIndex(value);
+        if (index == mValues.length) {
+            return mValues[index - 1];
+        }
+        if (index == 0) {
+            return mValues[0];
+        }
+        long above = mValues[index];
+        long below = mValues[index - 1];
+        return above - value <= value - below ? above : below;
+    }
+}
@@ -0,0 +1,17 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 耗时的刻度文字, 例如汇率换算或本地化单位
+ * <p>
+ * 在后台线程中调用, 结果会被缓存, 同一刻度通常只调用一次. 文字未准备好时刻度尺显示占位符
+ */
+public interface TickLabelProvider {
+
+    /**
+     * 计算刻度的文字, 在后台线程中依次调用
+     *
+     * @param scale 刻度值
+     * @return 刻度文字, 为null时显示占位符
+     */
+    String getLabel(int scale);
+}
@@ -0,0 +1,165 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 一帧的刻度布局: 可见范围内的普通刻度线, 整刻度线以及需要绘制文字的刻度
+ * <p>
+ * 所有缓冲区在帧之间复用, 布局过程不分配内存.
+ * 设置了可选刻度时只在可选刻度上绘制, 缩小后用二分查找跳过过密的刻度, 每帧的开销与可选刻度总数无关
+ */
+public final class TickLayout {
+
+    private final LineBatch mMinorTicks = new LineBatch(64);
+    private final LineBatch mMajorTicks = new LineBatch(8);
+    private long[] mLabelValues = new long[8];
+    private float[] mLabelPositions = new float[8];
+    private int mLabelCount;
+
+    /**
+     * 按geometry当前的可见范围和细节层次布局刻度线
+     *
+     * @param horizontal  刻度尺是否水平
+     * @param crossBase   刻度线起点在垂直方向上的坐标
+     * @param crossSign   刻度线延伸的方向, 1或-1
+     * @param minorLength 普通刻度线长度
+     * @param majorLength 整刻度线长度
+     */
+    public void layout(ScaleGeometry geometry, boolean horizontal, float crossBase, float crossSign,
+                       float minorLength, float majorLength) {
+        reset();
+        SnapPoints points = geometry.getSnapPoints();
+        if (points != null) {
+            layoutSnapPoints(geometry, points, horizontal, crossBase,
+                    crossBase + crossSign * minorLength, crossBase + crossSign * majorLength);
+            return;
+        }
+        int count = geometry.getVisibleTickCount();
+        if (count == 0) {
+            return;
+        }
+        mMinorTicks.ensureCapacity(count);
+        mMajorTicks.ensureCapacity(count);
+
+        long tickStep = geometry.getTickStep();
+        float minorEnd = crossBase + crossSign * minorLength;
+        float majorEnd = crossBase + crossSign * majorLength;
+        long last = geometry.getLastVisible();
+        for (long v = geometry.getFirstVisible(); v <= last; v += tickStep) {
+            float pos = geometry.positionOf(v);
+            boolean major = geometry.isMajor(v);
+            float end = major ? majorEnd : minorEnd;
+            LineBatch batch = major ? mMajorTicks : mMinorTicks;
+            if (horizontal) {
+                batch.add(pos, crossBase, pos, end);
+            } else {
+                batch.add(crossBase, pos, end, pos);
+            }
+            if (major) {
+                addLabel(v, pos);
+            }
+        }
+    }
+
+    /**
+     * 可选刻度的布局: 满足刻度线间距的画普通刻度线, 满足文字间距的画整刻度线和文字
+     */
+    private void layoutSnapPoints(ScaleGeometry geometry, SnapPoints points, boolean horizontal,
+                                  float crossBase, float minorEnd, float majorEnd) {
+        int first = geometry.getFirstSnapIndex();
+        int last = geometry.getLastSnapIndex();
+        long step = geometry.getModel().getStep();
+        long tickGap = geometry.valueSpan(geometry.getMinTickSpacing());
+        long min = geometry.getModel().getMin();
+        for (int i = select(points, first, tickGap, step, min); i <= last;
+             i = select(points, i + 1, tickGap, step, min)) {
+            float pos = geometry.positionOf(points.get(i));
+            addLine(mMinorTicks, horizontal, pos, crossBase, minorEnd);
+        }
+        long labelGap = geometry.valueSpan(geometry.getMinMajorSpacing());
+        for (int i = select(points, first, labelGap, step, min); i <= last;
+             i = select(points, i + 1, labelGap, step, min)) {
+            long value = points.get(i);
+            float pos = geometry.positionOf(value);
+            addLine(mMajorTicks, horizontal, pos, crossBase, majorEnd);
+            addLabel(value, pos);
+        }
+    }
+
+    /**
+     * 从下标index开始第一个需要绘制的可选刻度.
+     * 刻度之间至少相差step, gap不超过step时全部绘制; 否则从min开始按gap把刻度值分成区间,
+     * 只绘制偶数号区间中的第一个刻度, 相邻两个被绘制的刻度至少相差gap, 且结果不随滚动位置变化
+     */
+    private static int select(SnapPoints points, int index, long gap, long step, long min) {
+        if (gap <= step) {
+            return index;
+        }
+        int size = points.size();
+        while (index < size) {
+            long bucket = ScaleMath.floorDiv(points.get(index) - min, gap);
+            long next = bucket + 1;
+            if (ScaleMath.floorMod(bucket, 2) == 0) {
+                if (index == 0 || ScaleMath.floorDiv(points.get(index - 1) - min, gap) != bucket) {
+                    return index;
+                }
+                next = bucket + 2;
+            }
+            index = points.ceilingIndex(min + ScaleMath.multiplySaturated(next, gap));
+        }
+        return index;
+    }
+
+    private static void addLine(LineBatch batch, boolean horizontal, float pos, float crossBase, float end) {
+        if (horizontal) {
+            batch.add(pos, crossBase, pos, end);
+        } else {
+            batch.add(crossBase, pos, end, pos);
+        }
+    }
+
+    public void reset() {
+        mMinorTicks.reset();
+        mMajorTicks.reset();
+        mLabelCount = 0;
+    }
+
+    private void addLabel(long value, float position) {
+        if (mLabelCount == mLabelValues.length) {
+            int size = mLabelCount * 2;
+            long[] values = new long[size];
+            float[] positions = new float[size];
+            System.arraycopy(mLabelValues, 0, values, 0, mLabelCount);
+            System.arraycopy(mLabelPositions, 0, positions, 0, mLabelCount);
+            mLabelValues = values;
+            mLabelPositions = positions;
+        }
+        mLabelValues[mLabelCount] = value;
+        mLabelPositions[mLabelCount] = position;
+        mLabelCount++;
+    }
+
+    public LineBatch getMinorTicks() {
+        return mMinorTicks;
+    }
+
+    public LineBatch getMajorTicks() {
+        return mMajorTicks;
+    }
+
+    public int getLabelCount() {
+        return mLabelCount;
+    }
+
+    /**
+     * 第index个文字的刻度值
+     */
+    public long getLabelValue(int index) {
+        return mLabelValues[index];
+    }
+
+    /**
+     * 第index个文字在滚动方向上的坐标
+     */
+    public float getLabelPosition(int index) {
+        return mLabelPositions[index];
+    }
+}
@@ -0,0 +1,72 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalIndexTest {
+
+    @Test
+    public void query_matchesLinearScan() {
+        Random random = new Random(7);
+        for (int size : new int[]{0, 1, 2, 3, 15, 16, 17, 100, 1000, 1025}) {
+            long[] starts = new long[size];
+            long[] ends = new long[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = random.nextInt(100000) - 50000;
+                // 少数很长的区间
+                ends[i] = starts[i] + (random.nextInt(20) == 0 ? random.nextInt(50000) : random.nextInt(200));
+            }
+            IntervalIndex index = new IntervalIndex(starts, ends, size);
+            IntervalHits hits = new IntervalHits();
+            for (int query = 0; query < 200; query++) {
+                long from = random.nextInt(110000) - 55000;
+                long to = from + random.nextInt(2000);
+                index.query(from, to, hits);
+                int expected = 0;
+                for (int i = 0; i < size; i++) {
+                    if (starts[i] <= to && ends[i] >= from) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, hits.getCount());
+                for (int i = 0; i < hits.getCount(); i++) {
+                    int hit = hits.get(i);
+                    assertTrue(index.getStart(hit) <= to && index.getEnd(hit) >= from);
+                    assertEquals(starts[index.getId(hit)], index.getStart(hit));
+                    if (i > 0) {
+                        assertTrue(index.getStart(hits.get(i - 1)) <= index.getStart(hit));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void overlay_sortsMarkersAndKeepsRangeColors() {
+        RangeOverlay overlay = new RangeOverlay.Builder()
+                .addRange(50, 60, 2)
+                .addRange(10, 20, 1)
+                .addMarker(30, 5, "b")
+                .addMarker(-5, 4, "a")
+                .addMarker(30, 6, null)
+                .build();
+        IntervalHits hits = new IntervalHits();
+        overlay.queryRanges(15, 55, hits);
+        assertEquals(2, hits.getCount());
+        assertEquals(1, overlay.getRangeColor(hits.get(0)));
+        assertEquals(2, overlay.getRangeColor(hits.get(1)));
+        overlay.queryRanges(21, 49, hits);
+        assertEquals(0, hits.getCount());
+
+        assertEquals(-5, overlay.getMarkerValue(0));
+        assertEquals("b", overlay.getMarkerLabel(1));
+        assertEquals(6, overlay.getMarkerColor(2));
+        assertEquals(1, overlay.firstMarkerAtOrAfter(0));
+        assertEquals(1, overlay.firstMarkerAtOrAfter(30));
+        assertEquals(3, overlay.firstMarkerAtOrAfter(31));
+    }
+}
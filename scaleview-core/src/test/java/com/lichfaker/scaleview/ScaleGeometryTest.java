@@ -0,0 +1,154 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScaleGeometryTest {
+
+    @Test
+    public void valueAndScroll_roundTrip() {
+        ScaleGeometry geometry = new ScaleGeometry(new ScaleModel(0, 10000, 5, 2, 1, 10), 10);
+        geometry.setViewportLength(200);
+        assertEquals(10, geometry.getHalfCount());
+        for (long v = 0; v <= 10000; v += 5) {
+            assertEquals(v, geometry.valueAtScroll(geometry.scrollFor(v)));
+        }
+        // 四舍五入到最近的刻度
+        assertEquals(50, geometry.valueAtScroll(geometry.scrollFor(50) + 4));
+        assertEquals(55, geometry.valueAtScroll(geometry.scrollFor(50) + 5));
+    }
+
+    @Test
+    public void snapScroll_clampsToRange() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(20, 200), 8);
+        geometry.setViewportLength(400);
+        assertEquals(geometry.scrollFor(20), geometry.snapScroll(-100000));
+        assertEquals(geometry.scrollFor(200), geometry.snapScroll(100000));
+        assertEquals(geometry.scrollFor(31), geometry.snapScroll(geometry.scrollFor(31) - 3));
+    }
+
+    @Test
+    public void visibleRange_dependsOnViewportOnly() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 100000000), 8);
+        geometry.setOrigin(50000000);
+        geometry.updateVisibleRange(-4, 796, 0);
+        assertEquals(50000000, geometry.getFirstVisible());
+        assertEquals(50000099, geometry.getLastVisible());
+        assertEquals(100, geometry.getVisibleTickCount());
+
+        TickLayout layout = new TickLayout();
+        layout.layout(geometry, true, 72, -1, 18, 36);
+        assertEquals(10, layout.getLabelCount());
+        assertEquals(90, layout.getMinorTicks().getLineCount());
+        assertEquals(10, layout.getMajorTicks().getLineCount());
+    }
+
+    @Test
+    public void visibleRange_alignsToMinorInterval() {
+        ScaleGeometry geometry = new ScaleGeometry(new ScaleModel(0, 1000, 1, 0, 5, 10), 4);
+        geometry.updateVisibleRange(6, 100, 0);
+        assertEquals(5, geometry.getFirstVisible());
+        assertEquals(25, geometry.getLastVisible());
+        assertEquals(5, geometry.getVisibleTickCount());
+    }
+
+    @Test
+    public void ticksAndLabels_countFromUnalignedMin() {
+        ScaleGeometry geometry = new ScaleGeometry(new ScaleModel(3, 100, 5, 0, 1, 2), 10);
+        geometry.updateVisibleRange(0, 195, 0);
+        assertEquals(3, geometry.getFirstVisible());
+        assertEquals(98, geometry.getLastVisible());
+        assertTrue(geometry.isMajor(13));
+        assertTrue(!geometry.isMajor(10));
+
+        TickLayout layout = new TickLayout();
+        layout.layout(geometry, true, 72, -1, 18, 36);
+        assertEquals(10, layout.getLabelCount());
+        for (int i = 0; i < layout.getLabelCount(); i++) {
+            // 文字都是可以选择的刻度, 画在自己的位置上
+            long value = layout.getLabelValue(i);
+            assertEquals(3 + 10 * i, value);
+            assertEquals(geometry.positionOf(value), layout.getLabelPosition(i), 0);
+        }
+
+        // 可选刻度抽稀时同样从最小值开始分组
+        geometry.setSnapPoints(SnapPoints.of(new long[]{3, 8, 13, 18, 23}));
+        geometry.setLevelOfDetail(0, 20);
+        geometry.updateVisibleRange(0, 195, 0);
+        layout.layout(geometry, true, 72, -1, 18, 36);
+        assertEquals(3, layout.getLabelValue(0));
+    }
+
+    @Test
+    public void zoomedSpacing_keepsRoundTrip() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 100000), 15);
+        geometry.setViewportLength(1080);
+        int pointer = geometry.getPointerOffset();
+        // 2.5像素的间距, 指针位置不随缩放变化
+        geometry.setSpacing(ScaleGeometry.SPACING_ONE * 5 / 2);
+        assertEquals(pointer, geometry.getPointerOffset());
+        for (long v = 0; v <= 100000; v += 7) {
+            assertEquals(v, geometry.valueAtScroll(geometry.scrollFor(v)));
+        }
+        assertEquals(25000, geometry.positionOf(10000));
+        // 间距小于1像素时, 指针的精度为1像素
+        geometry.setSpacing(ScaleGeometry.SPACING_ONE * 3 / 10);
+        for (long v = 0; v <= 100000; v += 7) {
+            assertTrue(Math.abs(v - geometry.valueAtScroll(geometry.scrollFor(v))) <= 4);
+        }
+    }
+
+    @Test
+    public void fractionalSpacing_roundTripsEveryValue() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 10000), 15);
+        geometry.setViewportLength(1080);
+        // 1到2像素之间的间距, 缩放到0.07~0.12时可以达到
+        long[] spacings = {ScaleGeometry.SPACING_ONE + 192, 346, 461};
+        for (long spacing : spacings) {
+            geometry.setSpacing(spacing);
+            for (long v = 0; v <= 10000; v++) {
+                assertEquals("spacing " + spacing, v, geometry.valueAtScroll(geometry.scrollFor(v)));
+            }
+        }
+    }
+
+    @Test
+    public void levelOfDetail_boundsTicksAtAnyZoom() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 100000000), 15);
+        geometry.setLevelOfDetail(6, 60);
+        TickLayout layout = new TickLayout();
+        // 未缩放时绘制全部刻度
+        assertEquals(1, geometry.getTickStep());
+        assertEquals(10, geometry.getMajorStep());
+        for (long spacing = 15L * ScaleGeometry.SPACING_ONE; spacing > 0; spacing = spacing * 2 / 3) {
+            geometry.setSpacing(spacing);
+            geometry.updateVisibleRange(0, 1080, 0);
+            layout.layout(geometry, true, 72, -1, 18, 36);
+            int lines = layout.getMinorTicks().getLineCount() + layout.getMajorTicks().getLineCount();
+            assertTrue("ticks " + lines + " at " + spacing, lines <= 1080 / 6 + 1);
+            assertTrue("labels " + layout.getLabelCount() + " at " + spacing, layout.getLabelCount() <= 1080 / 60 + 1);
+            // 层次按1, 5, 10, 50...递增, 整刻度总在刻度线上
+            assertEquals(0, geometry.getMajorStep() % geometry.getTickStep());
+            assertTrue(isLevel(geometry.getTickStep()));
+            assertTrue(isLevel(geometry.getMajorStep() / 10));
+        }
+    }
+
+    private static boolean isLevel(long multiple) {
+        while (multiple % 10 == 0) {
+            multiple /= 10;
+        }
+        return multiple == 1 || multiple == 5;
+    }
+
+    @Test
+    public void formatDecimal() {
+        char[] buffer = new char[LabelFormatter.MAX_LENGTH];
+        int length = DefaultLabelFormatter.formatDecimal(-5, 2, buffer, 0);
+        assertEquals("-0.05", new String(buffer, 0, length));
+        length = new DefaultLabelFormatter(1).format(1234, buffer);
+        assertEquals("123.4", new String(buffer, 0, length));
+    }
+}
@@ -0,0 +1,67 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScaleValueStreamTest {
+
+    @Test
+    public void subscribers_seeOnlyTheLatestValue() throws InterruptedException {
+        ScaleValueStream stream = new ScaleValueStream();
+        ScaleValueStream.Subscription subscription = stream.subscribe();
+        assertFalse(stream.hasValue());
+        assertFalse(subscription.hasUpdate());
+        assertFalse(subscription.await(1, TimeUnit.MILLISECONDS));
+
+        for (int value = -500; value <= 1000; value++) {
+            stream.publish(value);
+        }
+        assertFalse(stream.publish(1000));
+        assertEquals(1501, stream.getVersion());
+        assertTrue(subscription.hasUpdate());
+        assertEquals(1000, subscription.poll());
+        assertFalse(subscription.hasUpdate());
+
+        // 每个订阅者有自己的读取位置
+        ScaleValueStream.Subscription late = stream.subscribe();
+        assertEquals(1000, late.take());
+    }
+
+    @Test
+    public void take_wakesWhenPublishedFromAnotherThread() throws InterruptedException {
+        final ScaleValueStream stream = new ScaleValueStream();
+        stream.publish(1);
+        final ScaleValueStream.Subscription subscription = stream.subscribe();
+        subscription.poll();
+        final AtomicInteger received = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int value;
+                    do {
+                        value = subscription.take();
+                    } while (value != 100);
+                    received.set(value);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        });
+        consumer.start();
+        for (int value = 2; value <= 100; value++) {
+            stream.publish(value);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(100, received.get());
+    }
+}
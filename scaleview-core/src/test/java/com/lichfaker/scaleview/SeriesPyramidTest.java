@@ -0,0 +1,73 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SeriesPyramidTest {
+
+    @Test
+    public void levels_holdMinAndMaxOfEachBucket() {
+        Random random = new Random(42);
+        float[] values = new float[1001];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat() * 200 - 50;
+        }
+        SeriesPyramid pyramid = new SeriesPyramid(0, 1, values);
+        assertEquals(11, pyramid.getLevelCount());
+        for (int level = 0; level < pyramid.getLevelCount(); level++) {
+            int width = 1 << level;
+            for (int bucket = 0; bucket * width < values.length; bucket++) {
+                float min = Float.MAX_VALUE;
+                float max = -Float.MAX_VALUE;
+                for (int i = bucket * width; i < Math.min(values.length, (bucket + 1) * width); i++) {
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+                assertEquals(min, pyramid.getMin(level, bucket), 0);
+                assertEquals(max, pyramid.getMax(level, bucket), 0);
+            }
+        }
+    }
+
+    @Test
+    public void query_costDependsOnVisiblePixels() {
+        float[] values = new float[4000000];
+        values[2500000] = 99;
+        SeriesPyramid pyramid = new SeriesPyramid(0, 1, values);
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 4000000), 15);
+        SeriesBuckets buckets = new SeriesBuckets();
+
+        // 缩小到0.01像素一个点时仍然只取出约一屏像素个桶
+        for (long spacing = 15L * ScaleGeometry.SPACING_ONE; spacing > 0; spacing /= 3) {
+            geometry.setSpacing(spacing);
+            geometry.setOrigin(2500000);
+            geometry.updateVisibleRange(-540, 540, 0);
+            pyramid.query(geometry, geometry.getFirstVisible(), geometry.getLastVisible(), buckets);
+            assertTrue("buckets " + buckets.getCount() + " at " + spacing, buckets.getCount() <= 1080 + 2);
+            assertTrue(buckets.getBucketWidth() >= 1 || buckets.getLevel() == pyramid.getLevelCount() - 1);
+            // 任意层次都不会丢掉尖峰
+            float max = 0;
+            for (int i = 0; i < buckets.getCount(); i++) {
+                max = Math.max(max, buckets.getMax(i));
+            }
+            assertEquals(99, max, 0);
+        }
+    }
+
+    @Test
+    public void query_clipsToSeriesRange() {
+        SeriesPyramid pyramid = SeriesPyramid.of(100, 10, new long[]{1, 2, 3, 4, 5});
+        ScaleGeometry geometry = new ScaleGeometry(new ScaleModel(0, 1000, 10, 0, 1, 10), 20);
+        SeriesBuckets buckets = new SeriesBuckets();
+        pyramid.query(geometry, 0, 1000, buckets);
+        assertEquals(5, buckets.getCount());
+        assertEquals(200, buckets.getPosition(0), 0);
+        assertEquals(20, buckets.getBucketWidth(), 0);
+        pyramid.query(geometry, 500, 1000, buckets);
+        assertEquals(0, buckets.getCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapPointsTest {
+
+    @Test
+    public void search_findsNeighbours() {
+        SnapPoints points = SnapPoints.of(new int[]{1, 2, 5, 12, 24, 48});
+        assertEquals(0, points.ceilingIndex(-10));
+        assertEquals(2, points.ceilingIndex(3));
+        assertEquals(3, points.ceilingIndex(12));
+        assertEquals(6, points.ceilingIndex(49));
+        assertEquals(-1, points.floorIndex(0));
+        assertEquals(3, points.floorIndex(12));
+        assertEquals(3, points.floorIndex(23));
+        assertEquals(2, points.nearest(3));
+        assertEquals(5, points.nearest(4));
+        assertEquals(12, points.nearest(17));
+        assertEquals(24, points.nearest(18));
+        assertEquals(48, points.nearest(1000));
+        assertEquals(1, points.nearest(-1000));
+
+        assertSame(points, points.within(0, 100));
+        assertEquals(3, points.within(2, 20).size());
+        assertNull(points.within(25, 47));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_rejectsUnsortedValues() {
+        SnapPoints.of(new long[]{1, 5, 5});
+    }
+
+    @Test
+    public void geometry_snapsToNearestPointInRange() {
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 40), 15);
+        geometry.setViewportLength(300);
+        geometry.setSnapPoints(SnapPoints.of(new int[]{1, 2, 5, 12, 24, 48}));
+        // 超出范围的48被忽略
+        assertEquals(5, geometry.getSnapPoints().size());
+        assertEquals(geometry.scrollFor(12), geometry.snapScroll(geometry.scrollFor(17)));
+        assertEquals(geometry.scrollFor(24), geometry.snapScroll(geometry.scrollFor(40)));
+        assertEquals(geometry.scrollFor(1), geometry.snapScroll(-1000));
+
+        geometry.setSnapPoints(null);
+        assertEquals(geometry.scrollFor(17), geometry.snapScroll(geometry.scrollFor(17)));
+    }
+
+    @Test
+    public void layout_costDependsOnPixelsNotPointCount() {
+        long[] values = new long[50000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 4L + (i % 3);
+        }
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 200000), 15);
+        geometry.setSnapPoints(SnapPoints.of(values));
+        geometry.setLevelOfDetail(8, 60);
+        TickLayout layout = new TickLayout();
+        for (long spacing = 15L * ScaleGeometry.SPACING_ONE; spacing > 0; spacing /= 4) {
+            geometry.setSpacing(spacing);
+            geometry.setOrigin(60000);
+            geometry.updateVisibleRange(-540, 540, 0);
+            layout.layout(geometry, true, 72, -1, 18, 36);
+            int ticks = layout.getMinorTicks().getLineCount();
+            assertTrue("ticks " + ticks + " at " + spacing, ticks <= 1080 / 8 + 1);
+            assertTrue(ticks > 0);
+            assertTrue(layout.getLabelCount() <= 1080 / 60 + 1);
+            assertPointsApart(layout, 60);
+        }
+    }
+
+    @Test
+    public void layout_labelsDoNotChangeWhileScrolling() {
+        SnapPoints points = SnapPoints.of(new int[]{1, 2, 5, 12, 24, 48, 49, 50, 60, 96});
+        ScaleGeometry geometry = new ScaleGeometry(ScaleModel.ofInt(0, 100), 10);
+        geometry.setSnapPoints(points);
+        geometry.setLevelOfDetail(4, 40);
+        TickLayout layout = new TickLayout();
+        geometry.updateVisibleRange(0, 1000, 0);
+        layout.layout(geometry, true, 72, -1, 18, 36);
+        // 相距1的刻度都画刻度线, 文字至少相隔40像素
+        assertEquals(10, layout.getMinorTicks().getLineCount());
+        assertPointsApart(layout, 40);
+        long[] all = new long[layout.getLabelCount()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = layout.getLabelValue(i);
+        }
+        // 只看一部分时, 可见的文字与看全部时相同
+        geometry.updateVisibleRange(230, 650, 0);
+        layout.layout(geometry, true, 72, -1, 18, 36);
+        int j = 0;
+        for (long value : all) {
+            if (value >= 23 && value <= 65) {
+                assertEquals(value, layout.getLabelValue(j++));
+            }
+        }
+        assertEquals(j, layout.getLabelCount());
+    }
+
+    private static void assertPointsApart(TickLayout layout, int pixels) {
+        for (int i = 1; i < layout.getLabelCount(); i++) {
+            float distance = layout.getLabelPosition(i) - layout.getLabelPosition(i - 1);
+            assertTrue("labels " + distance + " apart", distance >= pixels - 1);
+        }
+    }
+}
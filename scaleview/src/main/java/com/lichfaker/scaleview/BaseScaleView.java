@@ -3,16 +3,27 @@ package com.lichfaker.scaleview;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.Resources;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
+import android.os.AsyncTask;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.support.annotation.StyleableRes;
 import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.VelocityTracker;
 import android.view.View;
-import android.widget.Scroller;
+import android.view.ViewConfiguration;
+import android.widget.OverScroller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author LichFaker on 16/3/12.
@@ -21,9 +32,11 @@ import android.widget.Scroller;
 public abstract class BaseScaleView extends View {
 
 
+    protected ScaleStyle mStyle; //当前的样式, 多个刻度尺可以共享
+    protected ScaleModel mScaleModel; //刻度模型, 刻度值都是定点数
     protected int mMax; //最大刻度
     protected int mMin; // 最小刻度
-    protected int mCountScale; //滑动的总刻度
+    protected int mCountScale; //指针处的刻度, 随滚动状态更新, 绘制时只读取
 
     protected int mScaleScrollViewRange;
 
@@ -34,145 +47,1939 @@ public abstract class BaseScaleView extends View {
     protected int mRectWidth; //总宽度
     protected int mRectHeight; //高度
 
-    protected Scroller mScroller;
-    protected int mScrollLastX;
+    protected OverScroller mScroller;
+    protected float mScrollLastX; //上一次触摸的位置, 垂直方向时为y
+    private long mLastTouchTime; //上一次触摸事件的时间
+    private float mDragScroll; //拖动时手指对应的滚动偏移, 保留小数部分
+    private boolean mTouchPrediction; //拖动时按速度预测手指的位置
+    private VelocityTracker mVelocityTracker;
+    private int mMinFlingVelocity;
+    private int mMaxFlingVelocity;
 
     protected int mTempScale; // 用于判断滑动方向
     protected int mMidCountScale; //中间刻度
+    protected int mHalfCount; //半屏的刻度数
+
+    protected ScaleGeometry mGeometry; //刻度与像素的换算, 原点随虚拟滚动移动
+    protected boolean mVirtualScroll; //虚拟滚动模式, View只有一屏大小, 原点随滑动移动
+
+    protected int mFirstVisibleScale; //可见区域的第一个刻度
+    protected int mLastVisibleScale; //可见区域的最后一个刻度
 
     protected OnScrollListener mScrollListener;
-    private Paint paint;
+    protected OnScaleSettledListener mSettledListener;
+    private int mDispatchPolicy = DISPATCH_ON_CHANGE;
+    private long mDispatchInterval = 100; //限频回调的间隔, 毫秒
+    private boolean mHasDispatched;
+    private int mLastDispatchedScale;
+    private long mLastDispatchTime;
+    private int mPendingScale; //限频期间最新的刻度
+    private boolean mTrailingPosted;
+    private boolean mHasSettled;
+    private int mLastSettledScale;
+    private boolean mTouching;
+    private final ScrollState mScrollState = new ScrollState(); //滚动偏移改变时更新, 不依赖重绘
+    private boolean mDeferDispatch; //批量修改期间只更新状态, 结束后统一回调
+    private FramePacer mFramePacer; //滑动中位置没有变化时推进下一帧, 不需要重绘
+    private final ScaleValueStream mValueStream = new ScaleValueStream(); //当前刻度, 供其他线程读取
+    private final AtomicLong mRequestedScale = new AtomicLong(NO_REQUEST); //其他线程请求的刻度, 只保留最新的
+    private volatile Handler mOwnerHandler = new Handler(Looper.getMainLooper()); //刻度尺所在线程
+    private FramePacer mRequestPacer; //在刻度尺所在线程中每帧应用一次请求的刻度
+    ScaleViewLink mLink; //联动时由它统一推进滑动
+    private ScaleViewMetrics mMetrics;
+    private int mLabelsDrawn; //当前帧绘制的文字数
+    private int mFlingCount;
+    private int mDispatchCount;
+    private long mTouchUpNanos; //手指抬起的时间, 0表示没有等待对齐
+    private ScaleResources mResources; //同一样式的刻度尺共享
+    private boolean mPrivateResources; //在渲染线程中绘制, 不使用共享的资源
+    private LabelCache mCustomLabelCache; //自定义文字格式时使用, 不共享
+    private final LineBatch mBaseLines = new LineBatch(1); //基线
+    private final TickLayout mTickLayout = new TickLayout(); //普通刻度线和整刻度线
+    private int mTicksDrawn; //当前帧绘制的刻度线数
+    private ScaleTileCache mTileCache; //为null时每帧直接绘制刻度
+    private boolean mPrefetchQueued;
+    private float mZoom = 1; //缩放比例, 实际刻度间距为mScaleMargin * mZoom
+    private float mMinZoom;
+    private float mMaxZoom;
+    private ScaleGestureDetector mScaleDetector; //为null时不支持双指缩放
+    private boolean mPinched; //本次手势中是否有第二根手指
+    private boolean mZoomAnimating;
+    private float mZoomFrom;
+    private float mZoomTo;
+    private long mZoomStartTime;
+    private int mZoomAnchor; //缩放动画期间保持在指针处的刻度
+    private SeriesPyramid mSeries; //沿刻度绘制的数据序列, 为null时不绘制
+    private int mSeriesStyle = SERIES_HISTOGRAM;
+    private int mSeriesGeneration; //后台建立金字塔时丢弃过期的结果
+    private Paint mSeriesPaint; //线宽随缩放变化, 不共享
+    private SeriesBuckets mSeriesBuckets;
+    private LineBatch mSeriesLines;
+    private RangeOverlay mOverlay; //高亮区间和标记, 为null时不绘制
+    private int mOverlayGeneration; //后台建立索引时丢弃过期的结果
+    private Paint mOverlayPaint; //颜色随区间和标记变化, 不共享
+    private IntervalHits mOverlayHits;
+    private TickLabelLoader mLabelLoader; //异步加载的刻度文字, 为null时按格式同步生成
+    private String mLabelPlaceholder = "…"; //异步文字未准备好时显示
     private Rect rect;
 
+    private static final int REBASE_THRESHOLD = 1 << 20; //滚动偏移超过该值时移动原点
+    private static final int JUMP_THRESHOLD = 1 << 24; //跳转距离超过该值时不做动画
+    // OverScroller的样条曲线中, 惯性滑动的距离与初速度的该次方成正比
+    private static final double DECELERATION_RATE = Math.log(0.78) / Math.log(0.9);
+    private static final double FLING_DISTANCE_EXPONENT = DECELERATION_RATE / (DECELERATION_RATE - 1);
+    private static final int SNAP_DURATION = 250; //没有惯性时对齐到刻度的动画时长, 毫秒
+    private static final int ZOOM_DURATION = 250; //缩放动画时长, 毫秒
+    private static final int TOUCH_PREDICTION_MILLIS = 8; //预测手指位置的提前量, 约半帧
+    private static final int MIN_TICK_SPACING_DP = 4; //缩小后刻度线之间的最小间距
+    private static final int ASYNC_LABEL_CAPACITY = 256; //异步文字的LRU大小
+    private static final long NO_REQUEST = Long.MIN_VALUE; //没有等待应用的刻度
+
+    /**
+     * 刻度变化时回调, 回调的时机由{@link #setDispatchPolicy(int)}决定
+     */
     public interface OnScrollListener {
         void onScaleScroll(int scale);
     }
 
+    /**
+     * 滑动停止并对齐到刻度时回调, 同一刻度不会重复回调
+     */
+    public interface OnScaleSettledListener {
+        void onScaleSettled(int scale);
+    }
+
+    public static final int DISPATCH_ON_CHANGE = 0; //刻度变化时回调
+    public static final int DISPATCH_ON_SETTLE = 1; //只在滑动停止时回调
+    public static final int DISPATCH_RATE_LIMITED = 2; //限制回调频率, 最后一次变化总会回调
+
+    public static final int SERIES_HISTOGRAM = 0; //数据序列绘制为柱状图
+    public static final int SERIES_SPARKLINE = 1; //数据序列绘制为折线
+
     public BaseScaleView(Context context) {
+        this(context, ScaleStyle.DEFAULT);
+    }
+
+    /**
+     * 在代码中使用共享的样式创建, 不需要解析属性
+     */
+    public BaseScaleView(Context context, ScaleStyle style) {
         super(context);
-        init(null);
+        init(style);
     }
 
     public BaseScaleView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        init(attrs);
+        init(ScaleStyle.fromAttributes(context, attrs, 0, 0));
     }
 
     public BaseScaleView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        init(attrs);
+        init(ScaleStyle.fromAttributes(context, attrs, defStyleAttr, 0));
     }
 
     @TargetApi(Build.VERSION_CODES.LOLLIPOP)
     public BaseScaleView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         super(context, attrs, defStyleAttr, defStyleRes);
-        init(attrs);
+        init(ScaleStyle.fromAttributes(context, attrs, defStyleAttr, defStyleRes));
     }
 
-    protected void init(AttributeSet attrs) {
-        // 获取自定义属性
+    protected void init(ScaleStyle style) {
+        // 样式中的尺寸都已算好, 直接复制
+        mStyle = style;
+        mScaleMargin = style.getScaleMargin();
+        mScaleHeight = style.getScaleHeight();
+        mScaleMaxHeight = style.getScaleMaxHeight();
+        mVirtualScroll = style.isVirtualScroll();
+        mMinZoom = style.getMinZoom();
+        mMaxZoom = style.getMaxZoom();
+        applyScaleModel(style.getModel());
 
-        TypedArray typedArray = getContext().obtainStyledAttributes(attrs, R.styleable.ScaleViewProperty, 0, 0);
-        mMin = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_min, 0);
-        mMax = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_max, 200);
-        mScaleMargin = (typedArray.getDimensionPixelOffset(R.styleable.ScaleViewProperty_lf_scale_view_margin, 15));
-        mScaleHeight = (typedArray.getDimensionPixelOffset(R.styleable.ScaleViewProperty_lf_scale_view_height, 20));
-        typedArray.recycle();
 
-
-        mScroller = new Scroller(getContext());
-
-        initPaint();
+        mScroller = new OverScroller(getContext());
+        ViewConfiguration configuration = ViewConfiguration.get(getContext());
+        mMinFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaxFlingVelocity = configuration.getScaledMaximumFlingVelocity();
 
         initVar();
+        obtainResources();
+        setZoomEnabled(style.isZoomEnabled());
 
         rect = new Rect();
 
     }
 
-    private void initPaint() {
-        paint = new Paint();
+    private void obtainResources() {
+        mResources = mPrivateResources
+                ? ScaleResources.createPrivate(getLabelTextSize(), mScaleModel.getPrecision())
+                : ScaleResources.obtain(getLabelTextSize(), mScaleModel.getPrecision());
+        updateLevelOfDetail();
+    }
+
+    /**
+     * 刻度尺将在主线程以外绘制(例如ScaleSurfaceView的渲染线程), 改用自己的画笔和文字缓存
+     */
+    void usePrivateResources() {
+        if (!mPrivateResources) {
+            mPrivateResources = true;
+            obtainResources();
+        }
+    }
+
+    /**
+     * 根据文字大小设置细节层次, 缩小后刻度线和文字不会挤在一起, 每帧绘制的数量有上限.
+     * 未缩放时按样式绘制全部刻度
+     */
+    private void updateLevelOfDetail() {
+        int minTickSpacing = dpToPx(MIN_TICK_SPACING_DP);
+        int minLabelSpacing;
+        Paint paint = mResources.scalePaint;
+        if (isHorizontal()) {
+            // 文字横向排列, 间距至少为最宽的文字加上一个字的空隙
+            LabelCache cache = getLabelCache();
+            float width = Math.max(measureLabel(cache, mMin, paint), measureLabel(cache, mMax, paint));
+            minLabelSpacing = (int) (width + paint.getTextSize());
+        } else {
+            minLabelSpacing = (int) (paint.getTextSize() * 2);
+        }
+        if (mGeometry.getSnapPoints() != null) {
+            // 可选刻度的间距不均匀, 按实际的像素间距跳过
+            mGeometry.setLevelOfDetail(minTickSpacing, minLabelSpacing);
+            return;
+        }
+        mGeometry.setLevelOfDetail(
+                (int) Math.min(minTickSpacing, (long) mScaleMargin * mScaleModel.getMinorInterval()),
+                (int) Math.min(minLabelSpacing, (long) mScaleMargin * mScaleModel.getMajorInterval()));
+    }
+
+    private static float measureLabel(LabelCache cache, int scale, Paint paint) {
+        int slot = cache.lookup(scale);
+        return paint.measureText(cache.getChars(slot), 0, cache.getLength(slot));
+    }
+
+    /**
+     * 刻度文字的大小, 在initVar之后调用
+     */
+    protected int getLabelTextSize() {
+        return mStyle.getTextSize();
+    }
+
+    public ScaleStyle getScaleStyle() {
+        return mStyle;
+    }
 
-        // 抗锯齿
-        paint.setAntiAlias(true);
-        // 设定是否使用图像抖动处理，会使绘制出来的图片颜色更加平滑和饱满，图像更加清晰
-        paint.setDither(true);
-        // 空心
-        paint.setStyle(Paint.Style.STROKE);
-        // 文字居中
-        paint.setTextAlign(Paint.Align.CENTER);
+    /**
+     * 滚动方向上内容的期望长度, 用于wrap_content时的测量.
+     * 虚拟滚动模式下内容可能非常长, 此时期望一屏的长度
+     */
+    protected int getContentLength() {
+        if (mVirtualScroll) {
+            DisplayMetrics metrics = getResources().getDisplayMetrics();
+            return isHorizontal() ? metrics.widthPixels : metrics.heightPixels;
+        }
+        return ScaleMath.clampToInt(mScaleModel.getStepCount() * mScaleMargin);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long startNanos = mMetrics != null ? System.nanoTime() : 0;
+        mLabelsDrawn = 0;
+        mTicksDrawn = 0;
+        if (mLabelLoader != null) {
+            updateLabelWindow();
+        }
         // 画笔
-        rect.set(getScrollX(), 0, getScrollX() + getWidth(), getHeight());
+        rect.set(getScrollX(), getScrollY(), getScrollX() + getWidth(), getScrollY() + getHeight());
         canvas.clipRect(rect);
 
+        if (mTileCache != null) {
+            // 刻度来自位图缓存, 只绘制可见的块
+            if (canvas.getClipBounds(rect)) {
+                if (isHorizontal()) {
+                    mTileCache.draw(canvas, rect.left, rect.right, getHeight());
+                } else {
+                    mTileCache.draw(canvas, rect.top, rect.bottom, getWidth());
+                }
+                queuePrefetch();
+            }
+            // 重绘缓存块时绘制的刻度画在位图中, 这一帧只绘制了位图
+            mTicksDrawn = 0;
+            mLabelsDrawn = 0;
+        } else {
+            drawRuler(canvas);
+        }
+
+        onDrawPointer(canvas, mResources.pointerPaint); //画指针
+        super.onDraw(canvas);
+
+        if (mMetrics != null) {
+            mMetrics.onFrameDrawn(System.nanoTime() - startNanos,
+                    mTicksDrawn, mLabelsDrawn);
+        }
+    }
+
+    /**
+     * 绘制基线, 刻度线和刻度文字, 只绘制canvas裁剪区域内的刻度
+     */
+    void drawRuler(Canvas canvas) {
+        computeVisibleRange(canvas);
+
+        // 基线和刻度线先写入缓冲区, 每组用一次drawLines绘制
+        mBaseLines.reset();
+        mTickLayout.reset();
+        drawSeries(canvas); //数据序列在刻度下面
+        drawRanges(canvas); //高亮区间在刻度下面
+
+        Paint paint = mResources.scalePaint;
         onDrawLine(canvas, paint);
-        onDrawPointer(canvas, paint); //画指针
-        paint.setColor(Color.GRAY);
         onDrawScale(canvas, paint); //画刻度
-        super.onDraw(canvas);
+        drawLines(canvas, mBaseLines, paint);
+        drawLines(canvas, mTickLayout.getMinorTicks(), paint);
+        drawLines(canvas, mTickLayout.getMajorTicks(), paint);
+        mTicksDrawn += mTickLayout.getMinorTicks().getLineCount() + mTickLayout.getMajorTicks().getLineCount();
+        drawMarkers(canvas); //标记在刻度上面
     }
 
-    protected abstract void initVar();
+    private static void drawLines(Canvas canvas, LineBatch batch, Paint paint) {
+        if (batch.getCount() > 0) {
+            canvas.drawLines(batch.getPoints(), 0, batch.getCount(), paint);
+        }
+    }
 
-    // 画线
-    protected abstract void onDrawLine(Canvas canvas, Paint paint);
+    /**
+     * 滑动停止后在主线程空闲时预先绘制可见区域两侧的块
+     */
+    private void queuePrefetch() {
+        if (mPrefetchQueued || !mScroller.isFinished()) {
+            return;
+        }
+        mPrefetchQueued = true;
+        Looper.myQueue().addIdleHandler(mPrefetchHandler);
+    }
 
-    // 画刻度
-    protected abstract void onDrawScale(Canvas canvas, Paint paint);
+    private final MessageQueue.IdleHandler mPrefetchHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrefetchQueued = false;
+            if (mTileCache != null && mScroller.isFinished()) {
+                if (isHorizontal()) {
+                    mTileCache.prefetch(getScrollX(), getScrollX() + getWidth());
+                } else {
+                    mTileCache.prefetch(getScrollY(), getScrollY() + getHeight());
+                }
+            }
+            return false;
+        }
+    };
 
-    // 画指针
-    protected abstract void onDrawPointer(Canvas canvas, Paint paint);
+    /**
+     * 开启或关闭位图缓存模式
+     * <p>
+     * 开启后刻度只绘制一次到位图中, 滑动时直接绘制位图, 适合软件绘制的设备
+     */
+    public void setTileCacheEnabled(boolean enabled) {
+        if (enabled == (mTileCache != null)) {
+            return;
+        }
+        mTileCache = enabled ? new ScaleTileCache(this, ScaleTileCache.DEFAULT_MAX_BYTES) : null;
+        invalidate();
+    }
 
-    // 滑动到指定刻度
-    public abstract void scrollToScale(int val);
+    /**
+     * 设置位图缓存的最大字节数, 会同时开启缓存模式.
+     * 不足以放下可见的块和两侧预取的块时, 按可见区域需要的块数分配
+     */
+    public void setTileCacheMaxBytes(int maxBytes) {
+        if (mTileCache != null && mTileCache.getMaxBytes() == maxBytes) {
+            return;
+        }
+        mTileCache = new ScaleTileCache(this, maxBytes);
+        invalidate();
+    }
 
-    public void setCurScale(int val) {
-        if (val >= mMin && val <= mMax) {
-            scrollToScale(val);
-            postInvalidate();
+    /**
+     * 刻度内容发生变化时丢弃已缓存的位图
+     */
+    protected void invalidateTiles() {
+        if (mTileCache != null) {
+            mTileCache.clear();
         }
+        invalidate();
     }
 
     /**
-     * 使用Scroller时需重写
+     * 绘制可见范围内的数据桶, 每个桶最小1像素, 用一次drawLines绘制
      */
-    @Override
-    public void computeScroll() {
-        super.computeScroll();
-        // 判断Scroller是否执行完毕
-        if (mScroller.computeScrollOffset()) {
-            scrollTo(mScroller.getCurrX(), mScroller.getCurrY());
-            // 通过重绘来不断调用computeScroll
-            invalidate();
+    private void drawSeries(Canvas canvas) {
+        SeriesPyramid series = mSeries;
+        if (series == null) {
+            return;
+        }
+        long tickStep = mGeometry.getTickStep();
+        series.query(mGeometry, mGeometry.getFirstVisible() - tickStep, mGeometry.getLastVisible() + tickStep,
+                mSeriesBuckets);
+        SeriesBuckets buckets = mSeriesBuckets;
+        int count = buckets.getCount();
+        if (count == 0) {
+            return;
         }
+        // 数据范围包含0, 从刻度线的起点向刻度线的方向延伸
+        float low = Math.min(0, series.getMin());
+        float high = Math.max(0, series.getMax());
+        float scale = high > low ? getSeriesExtent() / (high - low) : 0;
+        float base = isHorizontal() ? mRectHeight : 0;
+        float sign = isHorizontal() ? -1 : 1;
+        float half = buckets.getBucketWidth() / 2;
+        boolean horizontal = isHorizontal();
+        boolean histogram = mSeriesStyle == SERIES_HISTOGRAM;
+        LineBatch lines = mSeriesLines;
+        lines.reset();
+        lines.ensureCapacity(histogram ? count : count * 2);
+        float lastPos = 0;
+        float lastCross = 0;
+        for (int i = 0; i < count; i++) {
+            float pos = buckets.getPosition(i) + half;
+            float min = buckets.getMin(i);
+            float max = buckets.getMax(i);
+            if (histogram) {
+                min = Math.min(min, 0);
+                max = Math.max(max, 0);
+            }
+            float from = base + sign * (min - low) * scale;
+            float to = base + sign * (max - low) * scale;
+            if (horizontal) {
+                lines.add(pos, from, pos, to);
+            } else {
+                lines.add(from, pos, to, pos);
+            }
+            if (!histogram) {
+                // 相邻两个桶的中点相连
+                float cross = (from + to) / 2;
+                if (i > 0) {
+                    if (horizontal) {
+                        lines.add(lastPos, lastCross, pos, cross);
+                    } else {
+                        lines.add(lastCross, lastPos, cross, pos);
+                    }
+                }
+                lastPos = pos;
+                lastCross = cross;
+            }
+        }
+        Paint paint = mSeriesPaint;
+        paint.setStrokeWidth(histogram ? Math.max(1, buckets.getBucketWidth() - 1) : dpToPx(1));
+        drawLines(canvas, lines, paint);
     }
 
-    public void smoothScrollBy(int dx, int dy) {
-        mScroller.startScroll(mScroller.getFinalX(), mScroller.getFinalY(), dx, dy);
+    /**
+     * 数据序列在垂直于滚动方向上的最大长度
+     */
+    protected int getSeriesExtent() {
+        return mStyle.getCrossSize() / 2;
     }
 
-    public void smoothScrollTo(int fx, int fy) {
-        int dx = fx - mScroller.getFinalX();
-        int dy = fy - mScroller.getFinalY();
-        smoothScrollBy(dx, dy);
+    /**
+     * 设置沿刻度绘制的数据序列, 例如每个刻度的历史成交量
+     *
+     * @param series 为null时不绘制
+     */
+    public void setSeries(SeriesPyramid series) {
+        mSeriesGeneration++; //丢弃后台还未完成的序列
+        mSeries = series;
+        if (series != null) {
+            obtainSeriesPaint();
+        }
+        invalidateTiles();
     }
 
-    @Override
-    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        super.onLayout(changed, left, top, right, bottom);
+    /**
+     * 第一次使用数据序列时创建画笔和缓冲区
+     */
+    private Paint obtainSeriesPaint() {
+        if (mSeriesPaint == null) {
+            mSeriesPaint = new Paint();
+            mSeriesPaint.setColor(0x553F51B5);
+            mSeriesBuckets = new SeriesBuckets();
+            mSeriesLines = new LineBatch(64);
+        }
+        return mSeriesPaint;
     }
 
     /**
-     * 设置回调监听
+     * 在后台线程建立金字塔后设置数据序列, 第i个点对应刻度 firstValue + i * step.
+     * 可以在任意线程调用, 结果在刻度尺所在的线程中替换. 完成前再次设置时, 旧的结果会被丢弃
      *
-     * @param listener
+     * @param values 不会复制, 设置后不能再修改
      */
-    public void setOnScrollListener(OnScrollListener listener) {
-        this.mScrollListener = listener;
+    public void setSeries(final long firstValue, final float[] values) {
+        buildSeries(firstValue, values, null);
+    }
+
+    /**
+     * 整数数据序列, 见{@link #setSeries(long, float[])}
+     */
+    public void setSeries(final long firstValue, final long[] values) {
+        buildSeries(firstValue, null, values);
+    }
+
+    private void buildSeries(final long firstValue, final float[] floats, final long[] longs) {
+        runOnOwnerThread(new Runnable() {
+            @Override
+            public void run() {
+                startSeries(firstValue, floats, longs);
+            }
+        });
+    }
+
+    /**
+     * 在刻度尺所在的线程中调用, 序号只在该线程中读写
+     */
+    private void startSeries(final long firstValue, final float[] floats, final long[] longs) {
+        final int generation = ++mSeriesGeneration;
+        final long step = mScaleModel.getStep();
+        final Handler handler = mOwnerHandler;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SeriesPyramid series = floats != null
+                        ? new SeriesPyramid(firstValue, step, floats) : SeriesPyramid.of(firstValue, step, longs);
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mSeriesGeneration) {
+                            setSeries(series);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    public SeriesPyramid getSeries() {
+        return mSeries;
+    }
+
+    /**
+     * @param style {@link #SERIES_HISTOGRAM} 或 {@link #SERIES_SPARKLINE}
+     */
+    public void setSeriesStyle(int style) {
+        if (style != SERIES_HISTOGRAM && style != SERIES_SPARKLINE) {
+            throw new IllegalArgumentException("Unknown series style: " + style);
+        }
+        mSeriesStyle = style;
+        invalidateTiles();
+    }
+
+    public void setSeriesColor(int color) {
+        obtainSeriesPaint().setColor(color);
+        invalidateTiles();
+    }
+
+    /**
+     * 填充与可见范围重叠的高亮区间, 只查询索引中重叠的部分
+     */
+    private void drawRanges(Canvas canvas) {
+        RangeOverlay overlay = mOverlay;
+        if (overlay == null || overlay.getRangeCount() == 0) {
+            return;
+        }
+        long tickStep = mGeometry.getTickStep();
+        long first = mGeometry.getFirstVisible() - tickStep;
+        long last = mGeometry.getLastVisible() + tickStep;
+        IntervalHits hits = mOverlayHits;
+        overlay.queryRanges(first, last, hits);
+        Paint paint = mOverlayPaint;
+        paint.setStyle(Paint.Style.FILL);
+        boolean horizontal = isHorizontal();
+        int cross = horizontal ? mRectHeight : mRectWidth;
+        for (int i = 0, count = hits.getCount(); i < count; i++) {
+            int index = hits.get(i);
+            // 很长的区间只绘制可见的部分
+            float from = clampPosition(mGeometry.positionOf(Math.max(overlay.getRangeStart(index), first)));
+            float to = clampPosition(mGeometry.positionOf(Math.min(overlay.getRangeEnd(index), last)));
+            paint.setColor(overlay.getRangeColor(index));
+            if (horizontal) {
+                canvas.drawRect(from, 0, to, cross, paint);
+            } else {
+                canvas.drawRect(0, from, cross, to, paint);
+            }
+        }
+    }
+
+    /**
+     * 绘制可见范围内的标记线和文字, 标记按刻度排序, 二分查找第一个可见的标记
+     */
+    private void drawMarkers(Canvas canvas) {
+        RangeOverlay overlay = mOverlay;
+        if (overlay == null || overlay.getMarkerCount() == 0) {
+            return;
+        }
+        long tickStep = mGeometry.getTickStep();
+        long last = mGeometry.getLastVisible() + tickStep;
+        Paint paint = mOverlayPaint;
+        paint.setStyle(Paint.Style.FILL);
+        paint.setStrokeWidth(dpToPx(1));
+        paint.setTextSize(mResources.scalePaint.getTextSize());
+        boolean horizontal = isHorizontal();
+        int cross = horizontal ? mRectHeight : mRectWidth;
+        // 水平时文字在标记线右侧的顶部, 垂直时在标记线上方的右端
+        paint.setTextAlign(horizontal ? Paint.Align.LEFT : Paint.Align.RIGHT);
+        float gap = dpToPx(2);
+        for (int i = overlay.firstMarkerAtOrAfter(mGeometry.getFirstVisible() - tickStep),
+             count = overlay.getMarkerCount(); i < count && overlay.getMarkerValue(i) <= last; i++) {
+            float pos = clampPosition(mGeometry.positionOf(overlay.getMarkerValue(i)));
+            paint.setColor(overlay.getMarkerColor(i));
+            String label = overlay.getMarkerLabel(i);
+            if (horizontal) {
+                canvas.drawLine(pos, 0, pos, cross, paint);
+                if (label != null) {
+                    canvas.drawText(label, pos + gap, paint.getTextSize(), paint);
+                }
+            } else {
+                canvas.drawLine(0, pos, cross, pos, paint);
+                if (label != null) {
+                    canvas.drawText(label, cross, pos - gap, paint);
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置高亮区间和标记, 会丢弃后台还未完成的{@link #setRangeOverlayAsync(RangeOverlay.Builder)}
+     *
+     * @param overlay 为null时不绘制
+     */
+    public void setRangeOverlay(RangeOverlay overlay) {
+        mOverlayGeneration++;
+        mOverlay = overlay;
+        if (overlay != null && mOverlayPaint == null) {
+            mOverlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mOverlayHits = new IntervalHits();
+        }
+        invalidateTiles();
+    }
+
+    /**
+     * 在后台线程排序并建立索引, 完成后在刻度尺所在的线程一次性替换, 绘制时不会看到更新了一半的数据.
+     * 可以在任意线程调用, 完成前再次设置时, 旧的结果会被丢弃, 适合频繁地从服务器批量更新
+     *
+     * @param builder 设置后不能再修改
+     */
+    public void setRangeOverlayAsync(final RangeOverlay.Builder builder) {
+        runOnOwnerThread(new Runnable() {
+            @Override
+            public void run() {
+                startRangeOverlay(builder);
+            }
+        });
+    }
+
+    /**
+     * 在刻度尺所在的线程中调用, 序号只在该线程中读写
+     */
+    private void startRangeOverlay(final RangeOverlay.Builder builder) {
+        final int generation = ++mOverlayGeneration;
+        final Handler handler = mOwnerHandler;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final RangeOverlay overlay = builder.build();
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mOverlayGeneration) {
+                            setRangeOverlay(overlay);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    public RangeOverlay getRangeOverlay() {
+        return mOverlay;
+    }
+
+    /**
+     * 添加一段基线, 在onDrawLine中调用
+     */
+    protected void addBaseLine(float x0, float y0, float x1, float y1) {
+        mBaseLines.add(x0, y0, x1, y1);
+    }
+
+    /**
+     * 布局可见范围内的刻度线, 在onDrawScale中调用
+     *
+     * @param crossBase   刻度线起点在垂直方向上的坐标
+     * @param crossSign   刻度线延伸的方向, 1或-1
+     * @param minorLength 普通刻度线长度
+     * @param majorLength 整刻度线长度
+     */
+    protected void layoutTicks(float crossBase, float crossSign, float minorLength, float majorLength) {
+        mTickLayout.layout(mGeometry, isHorizontal(), crossBase, crossSign, minorLength, majorLength);
+    }
+
+    /**
+     * 绘制layoutTicks中整刻度的文字
+     *
+     * @param cross  文字在垂直方向上的坐标
+     * @param offset 文字相对刻度在滚动方向上的偏移
+     */
+    protected void drawLabels(Canvas canvas, Paint paint, float cross, float offset) {
+        boolean horizontal = isHorizontal();
+        for (int i = 0, count = mTickLayout.getLabelCount(); i < count; i++) {
+            int value = (int) mTickLayout.getLabelValue(i);
+            float pos = mTickLayout.getLabelPosition(i) + offset;
+            if (horizontal) {
+                drawLabel(canvas, value, pos, cross, paint);
+            } else {
+                drawLabel(canvas, value, cross, pos, paint);
+            }
+        }
+    }
+
+    /**
+     * 根据滚动偏移和裁剪区域计算可见的刻度范围, 绘制的开销只与可见区域的大小有关
+     */
+    protected void computeVisibleRange(Canvas canvas) {
+        if (!canvas.getClipBounds(rect)) {
+            rect.setEmpty();
+        }
+        int padding = getCullPadding();
+        if (isHorizontal()) {
+            mGeometry.updateVisibleRange(rect.left, rect.right, padding);
+        } else {
+            mGeometry.updateVisibleRange(rect.top, rect.bottom, padding);
+        }
+        mFirstVisibleScale = ScaleMath.clampToInt(mGeometry.getFirstVisible());
+        mLastVisibleScale = ScaleMath.clampToInt(mGeometry.getLastVisible());
+    }
+
+    /**
+     * 计算滚动偏移为scroll时可见的刻度范围, 用于预取异步文字
+     */
+    protected void updateVisibleRange(int scroll) {
+        mGeometry.updateVisibleRange(scroll, scroll + (isHorizontal() ? getWidth() : getHeight()), getCullPadding());
+    }
+
+    /**
+     * 刻度在滚动方向上的内容坐标
+     */
+    protected int scaleToPosition(int scale) {
+        return clampPosition(mGeometry.positionOf(scale));
+    }
+
+    /**
+     * 指针指向该刻度时的滚动偏移
+     */
+    protected int scrollForScale(int scale) {
+        return clampPosition(mGeometry.scrollFor(scale));
+    }
+
+    /**
+     * 滚动偏移对应的指针刻度(四舍五入到最近的刻度)
+     */
+    protected int scaleAtScroll(int scroll) {
+        return ScaleMath.clampToInt(mGeometry.valueAtScroll(scroll));
+    }
+
+    /**
+     * 测量完成后根据滚动方向上的可见长度计算中间刻度
+     */
+    protected void setViewportRange(int range) {
+        mScaleScrollViewRange = range;
+        mGeometry.setViewportLength(range);
+        mHalfCount = mGeometry.getHalfCount();
+        mMidCountScale = ScaleMath.clampToInt(mMin + mHalfCount * mScaleModel.getStep());
+        mTempScale = mMidCountScale;
+    }
+
+    /**
+     * 逻辑滚动偏移: 指针从最小刻度开始滑过的像素, 不受View大小和原点移动的影响
+     */
+    public long getLogicalScrollOffset() {
+        int scroll = isHorizontal() ? getScrollX() : getScrollY();
+        return mGeometry.logicalOffset(scroll);
+    }
+
+    public boolean isVirtualScroll() {
+        return mVirtualScroll;
+    }
+
+    /**
+     * 虚拟滚动模式下, 滑动停止且偏移过大时把原点移动到当前位置附近, 使像素坐标始终保持在较小的范围内
+     */
+    protected void maybeRebaseOrigin() {
+        if (!mVirtualScroll || !mScroller.isFinished() || mScaleMargin <= 0) {
+            return;
+        }
+        int scroll = isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+        if (Math.abs(scroll) < REBASE_THRESHOLD) {
+            return;
+        }
+        // 原点移动到指针所在的刻度, 指针相对刻度的偏移不变
+        long value = mGeometry.valueAtScroll(scroll);
+        long residual = scroll - mGeometry.scrollFor(value);
+        mGeometry.setOrigin(value);
+        moveScrollTo(clampPosition(mGeometry.scrollFor(value) + residual));
+        invalidateTiles();
+    }
+
+    /**
+     * 虚拟滚动模式下距离过远时直接移动原点跳转到目标刻度, 不做动画
+     *
+     * @param val 已对齐到刻度的值
+     * @return 是否已经跳转
+     */
+    protected boolean jumpToScale(int val) {
+        if (!mVirtualScroll) {
+            return false;
+        }
+        int scroll = isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+        int current = scaleAtScroll(scroll);
+        long steps = ((long) val - current) / mScaleModel.getStep();
+        long distance = ScaleMath.multiplySaturated(steps, mGeometry.getSpacing()) >> ScaleGeometry.SPACING_SHIFT;
+        if (Math.abs(distance) < JUMP_THRESHOLD) {
+            return false;
+        }
+        mScroller.abortAnimation();
+        mGeometry.setOrigin(mGeometry.getOrigin() + val - current);
+        updateScrollState();
+        invalidateTiles();
+        return true;
+    }
+
+    private static int clampPosition(long value) {
+        return (int) ScaleMath.clamp(value, Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2);
+    }
+
+    /**
+     * 可见区域之外需要额外绘制的像素, 避免刻度文字在边缘被截断
+     */
+    protected int getCullPadding() {
+        return 0;
+    }
+
+    /**
+     * 绘制刻度文字, 文字来自缓存, 正常滑动时不会分配内存
+     */
+    protected void drawLabel(Canvas canvas, int scale, float x, float y, Paint paint) {
+        if (mLabelLoader != null) {
+            String label = mLabelLoader.get(scale);
+            canvas.drawText(label != null ? label : mLabelPlaceholder, x, y, paint);
+            mLabelsDrawn++;
+            return;
+        }
+        LabelCache cache = getLabelCache();
+        int slot = cache.lookup(scale);
+        canvas.drawText(cache.getChars(slot), 0, cache.getLength(slot), x, y, paint);
+        mLabelsDrawn++;
+    }
+
+    private LabelCache getLabelCache() {
+        return mCustomLabelCache != null ? mCustomLabelCache : mResources.labelCache;
+    }
+
+    /**
+     * 只允许停在给定的刻度上, 例如包装规格 1, 2, 5, 12, 24, 48. 只在这些刻度上绘制刻度线和文字,
+     * 手指抬起, 惯性滑动和setCurScale都对齐到最近的可选刻度
+     *
+     * @param points 为null时恢复每个刻度都可选
+     */
+    public void setSnapPoints(SnapPoints points) {
+        mGeometry.setSnapPoints(points);
+        updateLevelOfDetail();
+        if (mGeometry.getSnapPoints() != null && mScroller.isFinished()) {
+            moveToScale(mCountScale);
+        }
+        invalidateTiles();
+    }
+
+    /**
+     * @param values 严格递增的可选刻度
+     */
+    public void setSnapPoints(int[] values) {
+        setSnapPoints(values != null ? SnapPoints.of(values) : null);
+    }
+
+    /**
+     * @param values 严格递增的可选刻度
+     */
+    public void setSnapPoints(long[] values) {
+        setSnapPoints(values != null ? SnapPoints.of(values) : null);
+    }
+
+    /**
+     * 范围内的可选刻度, 没有设置时为null
+     */
+    public SnapPoints getSnapPoints() {
+        return mGeometry.getSnapPoints();
+    }
+
+    /**
+     * 设置刻度文字格式
+     *
+     * @param formatter 为null时使用按小数位数格式化的默认格式, 默认格式的缓存由同一样式的刻度尺共享
+     */
+    public void setLabelFormatter(LabelFormatter formatter) {
+        if (formatter == null) {
+            mCustomLabelCache = null;
+        } else if (mCustomLabelCache == null) {
+            mCustomLabelCache = new LabelCache(formatter);
+        } else {
+            mCustomLabelCache.setFormatter(formatter);
+        }
+        updateLevelOfDetail();
+        invalidateTiles();
+    }
+
+    /**
+     * 设置异步的刻度文字, 文字在后台线程加载, 加载前显示占位符
+     *
+     * @param provider 为null时恢复按格式生成的文字
+     */
+    public void setTickLabelProvider(TickLabelProvider provider) {
+        setTickLabelProvider(provider, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * 设置异步的刻度文字
+     *
+     * @param executor 加载文字的线程池, 同一时间只占用一个线程
+     */
+    public void setTickLabelProvider(TickLabelProvider provider, Executor executor) {
+        if (mLabelLoader != null) {
+            mLabelLoader.release();
+        }
+        mLabelLoader = provider != null
+                ? new TickLabelLoader(provider, executor, mLabelsLoaded, ASYNC_LABEL_CAPACITY) : null;
+        invalidateTiles();
+    }
+
+    /**
+     * 异步文字未准备好时显示的占位符
+     */
+    public void setLabelPlaceholder(String placeholder) {
+        mLabelPlaceholder = placeholder != null ? placeholder : "";
+        invalidateTiles();
+    }
+
+    private final TickLabelLoader.Callback mLabelsLoaded = new TickLabelLoader.Callback() {
+        @Override
+        public void onLabelsLoaded() {
+            invalidateTiles();
+        }
+    };
+
+    /**
+     * 按当前可见范围和滑动方向更新异步文字的加载窗口, 滑动时预取前方的文字, 越过的请求被取消
+     */
+    private void updateLabelWindow() {
+        int scroll = getScrollPosition();
+        // 惯性滑动和对齐时按目标位置, 拖动时按手指的方向判断
+        int direction = 0;
+        if (!mScroller.isFinished()) {
+            int end = isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+            direction = Integer.signum(end - scroll);
+        } else if (mTouching) {
+            direction = mScrollState.getDirection();
+        }
+        updateVisibleRange(scroll);
+        long step = mGeometry.getMajorStep();
+        long first = mGeometry.alignUp(mGeometry.getFirstVisible(), step);
+        mLabelLoader.updateWindow(first, mGeometry.getLastVisible(), step, direction);
+    }
+
+    private void applyScaleModel(ScaleModel model) {
+        checkIntRange(model);
+        mScaleModel = model;
+        // 回调, 文字和setCurScale都使用int形式的刻度值
+        mMin = (int) model.getMin();
+        mMax = (int) model.getMax();
+        if (mGeometry == null) {
+            mGeometry = new ScaleGeometry(model, mScaleMargin);
+        } else {
+            mGeometry.setModel(model);
+        }
+    }
+
+    /**
+     * 刻度尺的回调和文字使用int, 范围超出int的模型无法表示其中的刻度
+     */
+    private static void checkIntRange(ScaleModel model) {
+        if (model.getMin() < Integer.MIN_VALUE || model.getMax() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Scale range must fit in an int: ["
+                    + model.getMin() + ", " + model.getMax() + "]");
+        }
+    }
+
+    /**
+     * 设置刻度模型, 当前刻度仍在范围内时保持不变
+     *
+     * @throws IllegalArgumentException 范围超出int时
+     */
+    public void setScaleModel(ScaleModel model) {
+        setScaleStyle(mStyle.buildUpon().setModel(model).build());
+    }
+
+    /**
+     * 只修改刻度范围, 步长, 小数位数和整刻度间隔不变
+     *
+     * @throws IllegalArgumentException 范围超出int时
+     */
+    public void setRange(long min, long max) {
+        ScaleModel model = mScaleModel;
+        setScaleModel(new ScaleModel(min, max, model.getStep(), model.getPrecision(),
+                model.getMinorInterval(), model.getMajorInterval()));
+    }
+
+    /**
+     * @param margin 刻度间距, 像素
+     */
+    public void setScaleMargin(int margin) {
+        setScaleStyle(mStyle.buildUpon().setScaleMargin(margin).build());
+    }
+
+    /**
+     * @param height 刻度线的高度, 像素, 整刻度线高度, 刻度尺宽度和文字大小按该值推算
+     */
+    public void setScaleHeight(int height) {
+        setScaleStyle(mStyle.buildUpon().setScaleHeight(height).build());
+    }
+
+    /**
+     * 运行时更换样式, 一次修改范围, 间距和高度等多个属性, 不需要重新创建View.
+     * 只重新计算受影响的派生尺寸, 当前刻度仍在范围内时保持不变, 否则停在最近的一端.
+     * 每次调用最多触发一次布局(期望的尺寸改变时)和一次重绘
+     *
+     * @throws IllegalArgumentException 刻度范围超出int时, 刻度尺保持不变
+     */
+    public void setScaleStyle(ScaleStyle style) {
+        if (style == mStyle) {
+            return;
+        }
+        checkIntRange(style.getModel()); //在修改任何状态之前检查
+        mScroller.abortAnimation();
+        if (mZoomAnimating) {
+            mZoomAnimating = false;
+            applyZoom(mZoomTo);
+        }
+        int oldWidth = mRectWidth;
+        int oldHeight = mRectHeight;
+        mDeferDispatch = true;
+        mStyle = style;
+        if (!style.getModel().equals(mScaleModel)) {
+            applyScaleModel(style.getModel());
+        }
+        if (style.getScaleMargin() != mScaleMargin) {
+            // 新的间距保持原来的缩放比例
+            mScaleMargin = style.getScaleMargin();
+            mGeometry.setMargin(mScaleMargin);
+            if (mZoom != 1) {
+                mGeometry.setSpacing(Math.round(mScaleMargin * (double) ScaleGeometry.SPACING_ONE * mZoom));
+            }
+        }
+        mScaleHeight = style.getScaleHeight();
+        mScaleMaxHeight = style.getScaleMaxHeight();
+        if (style.isVirtualScroll() != mVirtualScroll) {
+            mVirtualScroll = style.isVirtualScroll();
+            mGeometry.setOrigin(mScaleModel.getMin());
+        }
+        initVar();
+        setViewportRange(mScaleScrollViewRange);
+        obtainResources();
+        setZoomEnabled(style.isZoomEnabled());
+        mMinZoom = style.getMinZoom();
+        mMaxZoom = style.getMaxZoom();
+        if (mZoom < mMinZoom || mZoom > mMaxZoom) {
+            applyZoom(mZoom);
+        }
+        moveToScale(mCountScale);
+        mDeferDispatch = false;
+        dispatchScaleScroll(mCountScale);
+        if (mRectWidth != oldWidth || mRectHeight != oldHeight) {
+            requestLayout();
+        }
+        invalidateTiles();
+    }
+
+    private void changeScaleModel(ScaleModel model) {
+        applyScaleModel(model);
+        initVar();
+        setViewportRange(mScaleScrollViewRange);
+        obtainResources();
+    }
+
+    /**
+     * 不做动画, 直接把指针移动到刻度
+     */
+    void moveToScale(int scale) {
+        moveScrollTo(scrollForScale(snapScale(scale)));
+        mTempScale = mCountScale;
+    }
+
+    /**
+     * 不做动画, 直接移动到滚动偏移
+     */
+    private void moveScrollTo(int scroll) {
+        int x = isHorizontal() ? scroll : 0;
+        int y = isHorizontal() ? 0 : scroll;
+        mScroller.startScroll(x, y, 0, 0, 0);
+        mScroller.abortAnimation();
+        if (scroll == getScrollPosition()) {
+            // 滚动偏移不变时原点或间距可能改变了
+            updateScrollState();
+        } else {
+            scrollTo(x, y);
+        }
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        updateScrollState(isHorizontal() ? l : t);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        // 指针的位置随可见长度改变
+        updateScrollState();
+    }
+
+    /**
+     * 滚动偏移, 原点或间距改变后更新指针处的刻度并按回调策略回调.
+     * 刻度只在这里计算, 触摸和Scroller读到的总是当前的刻度, 绘制时不再计算
+     */
+    private void updateScrollState() {
+        updateScrollState(getScrollPosition());
+    }
+
+    private void updateScrollState(int scroll) {
+        mScrollState.update(mGeometry, scroll);
+        mCountScale = ScaleMath.clampToInt(mScrollState.getValue());
+        // 与回调一样, 有可选刻度时发布离指针最近的可选刻度
+        mValueStream.publish(mGeometry.getSnapPoints() != null ? snapScale(mCountScale) : mCountScale);
+        if (!mDeferDispatch) {
+            dispatchScaleScroll(mCountScale); //刻度不变时不会重复回调
+        }
+    }
+
+    /**
+     * 把刻度尺重新绑定到新的范围和刻度, 用于RecyclerView等复用View的场景, 不需要重新创建View.
+     * <p>
+     * 绑定不做动画, 也不会把绑定的刻度回调给监听器
+     *
+     * @throws IllegalArgumentException 刻度范围超出int时
+     */
+    public void bind(ScaleModel model, int value) {
+        checkIntRange(model);
+        reset();
+        mDeferDispatch = true;
+        if (!model.equals(mScaleModel)) {
+            changeScaleModel(model);
+            requestLayout();
+        }
+        moveToScale((int) model.clamp(value));
+        mDeferDispatch = false;
+        // 绑定的刻度视为已经回调过
+        mHasDispatched = true;
+        mLastDispatchedScale = mCountScale;
+        mHasSettled = true;
+        mLastSettledScale = mCountScale;
+        invalidateTiles();
+    }
+
+    /**
+     * 停止滑动并清除等待中的回调和手势状态, 在View被回收时调用
+     */
+    public void reset() {
+        mScroller.abortAnimation();
+        if (mZoomAnimating) {
+            // 缩放直接到目标比例
+            mZoomAnimating = false;
+            applyZoom(mZoomTo);
+        }
+        if (mTrailingPosted) {
+            removeCallbacks(mTrailingDispatch);
+            mTrailingPosted = false;
+        }
+        if (mPrefetchQueued) {
+            Looper.myQueue().removeIdleHandler(mPrefetchHandler);
+            mPrefetchQueued = false;
+        }
+        if (mVelocityTracker != null) {
+            mVelocityTracker.clear();
+        }
+        mTouching = false;
+        mPinched = false;
+        mTouchUpNanos = 0;
+        mHasDispatched = false;
+        mHasSettled = false;
+    }
+
+    public ScaleModel getScaleModel() {
+        return mScaleModel;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mFramePacer != null) {
+            mFramePacer.cancel();
+        }
+        if (mPrefetchQueued) {
+            Looper.myQueue().removeIdleHandler(mPrefetchHandler);
+            mPrefetchQueued = false;
+        }
+        if (mTrailingPosted) {
+            removeCallbacks(mTrailingDispatch);
+            mTrailingPosted = false;
+        }
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+        if (mTileCache != null) {
+            mTileCache.release();
+        }
+    }
+
+    // 是否为水平方向
+    protected abstract boolean isHorizontal();
+
+    protected abstract void initVar();
+
+    // 画线, 通过addBaseLine批量绘制. 以下方法传入的画笔由同一样式的刻度尺共享, 不能修改
+    protected abstract void onDrawLine(Canvas canvas, Paint paint);
+
+    // 画刻度, 刻度线通过layoutTicks批量绘制
+    protected abstract void onDrawScale(Canvas canvas, Paint paint);
+
+    // 画指针
+    protected abstract void onDrawPointer(Canvas canvas, Paint paint);
+
+    // 滑动到指定刻度
+    public abstract void scrollToScale(int val);
+
+    /**
+     * 滑动到指定刻度, 可以在任意线程调用.
+     * 在刻度尺所在的线程中直接执行; 在其他线程中只记录最新的请求, 下一帧在刻度尺所在的线程中执行一次
+     */
+    public void setCurScale(int val) {
+        Handler handler = mOwnerHandler;
+        if (Looper.myLooper() != handler.getLooper()) {
+            // 第一个请求负责转到刻度尺所在线程, 之后的请求只覆盖刻度
+            if (mRequestedScale.getAndSet(val) == NO_REQUEST) {
+                handler.post(mScheduleRequest);
+            }
+            return;
+        }
+        // 其他线程更早的请求已经过时
+        mRequestedScale.set(NO_REQUEST);
+        applyCurScale(val);
+    }
+
+    private void applyCurScale(int val) {
+        if (val >= mMin && val <= mMax) {
+            scrollToScale(snapScale(val));
+            postInvalidate();
+        }
+    }
+
+    /**
+     * 在刻度尺所在的线程中执行, 已经在该线程中时直接执行
+     */
+    private void runOnOwnerThread(Runnable action) {
+        Handler handler = mOwnerHandler;
+        if (Looper.myLooper() == handler.getLooper()) {
+            action.run();
+        } else {
+            handler.post(action);
+        }
+    }
+
+    private final Runnable mScheduleRequest = new Runnable() {
+        @Override
+        public void run() {
+            if (mRequestPacer == null) {
+                mRequestPacer = FramePacer.create(mOwnerHandler, mApplyRequest);
+            }
+            mRequestPacer.schedule();
+        }
+    };
+
+    private final Runnable mApplyRequest = new Runnable() {
+        @Override
+        public void run() {
+            long requested = mRequestedScale.getAndSet(NO_REQUEST);
+            if (requested != NO_REQUEST) {
+                applyCurScale((int) requested);
+            }
+        }
+    };
+
+    /**
+     * 刻度尺改由另一个线程使用(例如ScaleSurfaceView的渲染线程), 其他线程的setCurScale转到该线程执行.
+     * 只能在该线程还没有使用刻度尺时调用
+     */
+    void setOwnerLooper(Looper looper) {
+        mOwnerHandler = new Handler(looper);
+        mRequestPacer = null;
+    }
+
+    /**
+     * 当前刻度的数据流, 只保留最新的刻度. 在后台线程中处理刻度时直接读取或等待,
+     * 不需要经过UI线程中的OnScrollListener
+     */
+    public ScaleValueStream getValueStream() {
+        return mValueStream;
+    }
+
+    /**
+     * 使用Scroller时需重写
+     */
+    @Override
+    public void computeScroll() {
+        super.computeScroll();
+        if (mLink != null) {
+            // 联动时由ScaleViewLink在每帧开始时统一推进
+            mLink.onComputeScroll(this);
+            return;
+        }
+        stepFrame();
+    }
+
+    /**
+     * 推进一帧, 位置变化时通过重绘来不断调用computeScroll;
+     * 位置没有变化时(例如惯性滑动的末尾)不重绘, 在下一帧直接推进
+     */
+    private void stepFrame() {
+        int before = getScrollPosition();
+        if (!advanceScroll()) {
+            return;
+        }
+        if (getScrollPosition() != before || getWindowToken() == null) {
+            invalidate();
+        } else {
+            obtainFramePacer().schedule();
+        }
+    }
+
+    private FramePacer obtainFramePacer() {
+        if (mFramePacer == null) {
+            mFramePacer = FramePacer.create(new Handler(), new Runnable() {
+                @Override
+                public void run() {
+                    if (mLink == null) {
+                        stepFrame();
+                    }
+                }
+            });
+        }
+        return mFramePacer;
+    }
+
+    /**
+     * 推进一帧缩放动画或滑动, 停止后回调
+     *
+     * @return 是否还需要下一帧
+     */
+    boolean advanceScroll() {
+        if (mZoomAnimating && stepZoomAnimation()) {
+            return true;
+        }
+        // 判断Scroller是否执行完毕
+        if (mScroller.computeScrollOffset()) {
+            scrollTo(mScroller.getCurrX(), mScroller.getCurrY());
+            return true;
+        }
+        if (mTouchUpNanos != 0) {
+            if (mMetrics != null) {
+                mMetrics.onSettled(System.nanoTime() - mTouchUpNanos);
+            }
+            mTouchUpNanos = 0;
+        }
+        if (!mTouching) {
+            // 拖动时滚动偏移由手指决定, 抬起后再移动原点
+            maybeRebaseOrigin();
+        }
+        dispatchScaleSettled(mCountScale);
+        return false;
+    }
+
+    /**
+     * 是否正在滑动或缩放动画中
+     */
+    boolean isScrolling() {
+        return !mScroller.isFinished() || mZoomAnimating;
+    }
+
+    boolean isTouching() {
+        return mTouching;
+    }
+
+    /**
+     * 停在当前位置, 不对齐刻度
+     */
+    void stopScroll() {
+        mScroller.forceFinished(true);
+        mZoomAnimating = false;
+    }
+
+    /**
+     * 不做动画, 直接对齐到离当前位置最近的刻度
+     */
+    void snapToTick() {
+        moveScrollTo(snapScrollToTick(getScrollPosition()));
+    }
+
+    /**
+     * 不做动画, 直接移动到逻辑滚动偏移, 不超出刻度范围
+     */
+    void moveToLogicalScrollOffset(long offset) {
+        long scroll = offset - mGeometry.logicalOffset(0);
+        moveScrollTo(clampPosition(ScaleMath.clamp(scroll, scrollForScale(mMin), scrollForScale(mMax))));
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mScaleDetector != null && handlePinch(event)) {
+            return true;
+        }
+        float pos = isHorizontal() ? event.getX() : event.getY();
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                onTouchDown();
+                mPinched = false;
+                mZoomAnimating = false;
+                if (!mScroller.isFinished()) {
+                    mScroller.abortAnimation();
+                }
+                if (mLink != null) {
+                    // 停止联动中其余刻度尺的滑动, 由这一把带动
+                    mLink.onTouchDown(this);
+                }
+                maybeRebaseOrigin();
+                if (mVelocityTracker == null) {
+                    mVelocityTracker = VelocityTracker.obtain();
+                } else {
+                    mVelocityTracker.clear();
+                }
+                mVelocityTracker.addMovement(event);
+                mScrollLastX = pos;
+                mLastTouchTime = event.getEventTime();
+                mDragScroll = getScrollPosition();
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                // addMovement会读取批量的历史采样, 速度不会漏掉两次事件之间的移动
+                if (mVelocityTracker != null) {
+                    mVelocityTracker.addMovement(event);
+                }
+                // 直接移动到手指的位置, 不用动画追赶, 小数部分累计到下一次
+                mDragScroll = clampScroll(mDragScroll + mScrollLastX - pos);
+                float target = mTouchPrediction ? clampScroll(mDragScroll + predictDrag(event, pos)) : mDragScroll;
+                moveScrollTo(Math.round(target));
+                if (mLink != null) {
+                    // 在同一个事件中带动联动的刻度尺, 不落后一帧
+                    mLink.onDrag(this);
+                }
+                mScrollLastX = pos;
+                mLastTouchTime = event.getEventTime();
+                mTempScale = mCountScale; //滚动状态已经随moveScrollTo更新
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                onTouchUp();
+                if (mTouchPrediction) {
+                    // 去掉预测的部分, 从手指实际的位置开始对齐或惯性滑动
+                    moveScrollTo(Math.round(mDragScroll));
+                }
+                float velocity = 0;
+                if (mVelocityTracker != null) {
+                    mVelocityTracker.addMovement(event);
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaxFlingVelocity);
+                    velocity = isHorizontal() ? mVelocityTracker.getXVelocity() : mVelocityTracker.getYVelocity();
+                }
+                // 缩放过的手势速度不可靠, 只对齐不做惯性滑动
+                if (event.getAction() == MotionEvent.ACTION_UP && !mPinched && Math.abs(velocity) > mMinFlingVelocity) {
+                    onFling();
+                    flingToTick(-(int) velocity);
+                } else {
+                    settleToTick();
+                }
+                postInvalidate();
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    /**
+     * 拖动时限制在最小和最大刻度之间, 边界随滚动状态更新
+     */
+    private float clampScroll(float scroll) {
+        return mScrollState.clamp(scroll);
+    }
+
+    /**
+     * 按最近两次采样的速度预测手指在半帧之后的位置, 返回滚动偏移的增量.
+     * 不超过这一次事件实际移动的距离, 避免停下时越过手指太多
+     */
+    private float predictDrag(MotionEvent event, float pos) {
+        int history = event.getHistorySize();
+        float previous;
+        long elapsed;
+        if (history > 0) {
+            previous = isHorizontal() ? event.getHistoricalX(history - 1) : event.getHistoricalY(history - 1);
+            elapsed = event.getEventTime() - event.getHistoricalEventTime(history - 1);
+        } else {
+            previous = mScrollLastX;
+            elapsed = event.getEventTime() - mLastTouchTime;
+        }
+        if (elapsed <= 0) {
+            return 0;
+        }
+        float predicted = (previous - pos) * TOUCH_PREDICTION_MILLIS / elapsed;
+        float limit = Math.abs(mScrollLastX - pos);
+        return Math.max(-limit, Math.min(limit, predicted));
+    }
+
+    /**
+     * 拖动时按速度预测手指的位置, 减少刻度尺落后于手指的距离. 默认关闭
+     */
+    public void setTouchPrediction(boolean enabled) {
+        mTouchPrediction = enabled;
+    }
+
+    /**
+     * 当前的滚动偏移
+     */
+    private int getScrollPosition() {
+        return isHorizontal() ? getScrollX() : getScrollY();
+    }
+
+    /**
+     * 离滚动偏移最近的刻度对应的滚动偏移, 不超出刻度范围
+     */
+    private int snapScrollToTick(int scroll) {
+        return scrollForScale(snapScale(scaleAtScroll(scroll)));
+    }
+
+    /**
+     * 限制在范围内并对齐到最近的刻度, 设置了可选刻度时对齐到最近的可选刻度
+     */
+    protected int snapScale(int scale) {
+        return (int) mGeometry.snap(scale);
+    }
+
+    private void startScrollBy(int start, int distance, int duration) {
+        if (isHorizontal()) {
+            mScroller.startScroll(start, getScrollY(), distance, 0, duration);
+        } else {
+            mScroller.startScroll(getScrollX(), start, 0, distance, duration);
+        }
+    }
+
+    /**
+     * 手指抬起且没有惯性时, 从当前位置滑到手指所在位置最近的刻度
+     */
+    protected void settleToTick() {
+        int start = getScrollPosition();
+        int end = isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+        mScroller.abortAnimation();
+        startScrollBy(start, snapScrollToTick(end) - start, SNAP_DURATION);
+    }
+
+    /**
+     * 惯性滑动. 开始时先预测停止的位置, 对齐到最近的刻度后按比例修正初速度,
+     * 一次动画直接停在刻度上, 停止后不需要再纠正
+     *
+     * @param velocity 滚动偏移方向上的速度, 像素/秒
+     */
+    protected void flingToTick(int velocity) {
+        int start = getScrollPosition();
+        int min = scrollForScale(mMin);
+        int max = scrollForScale(mMax);
+        // 不限制边界, 得到自然停止的位置
+        fling(start, velocity, Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2);
+        int natural = (isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY()) - start;
+        int target = snapScrollToTick(start + natural);
+        int distance = target - start;
+        if (natural == 0 || distance == 0 || (distance > 0) != (natural > 0)) {
+            // 最近的刻度在反方向, 直接滑过去
+            mScroller.abortAnimation();
+            startScrollBy(start, distance, SNAP_DURATION);
+            return;
+        }
+        // 瞄准刻度之后半个间距, 再用边界截断, 保证正好停在刻度上且停止时速度很小
+        double aim = Math.abs(distance) + mGeometry.getSpacing() / (2.0 * ScaleGeometry.SPACING_ONE);
+        double ratio = Math.pow(aim / Math.abs(natural), 1 / FLING_DISTANCE_EXPONENT);
+        int adjusted = (int) Math.round(velocity * ratio);
+        if (distance > 0) {
+            fling(start, adjusted, Math.min(min, start), target);
+        } else {
+            fling(start, adjusted, target, Math.max(max, start));
+        }
+        int end = isHorizontal() ? mScroller.getFinalX() : mScroller.getFinalY();
+        if (end != target) {
+            // 取整误差导致没有到达刻度时, 直接滑过去
+            mScroller.abortAnimation();
+            startScrollBy(start, distance, SNAP_DURATION);
+        }
+    }
+
+    private void fling(int start, int velocity, int min, int max) {
+        if (isHorizontal()) {
+            mScroller.fling(start, getScrollY(), velocity, 0, min, max, 0, 0);
+        } else {
+            mScroller.fling(getScrollX(), start, 0, velocity, 0, 0, min, max);
+        }
+    }
+
+    /**
+     * 手指按下时调用, 手指抬起前不会回调滑动停止
+     */
+    protected void onTouchDown() {
+        mTouching = true;
+    }
+
+    /**
+     * 手指抬起时调用, 开始统计对齐耗时
+     */
+    protected void onTouchUp() {
+        mTouching = false;
+        mTouchUpNanos = mMetrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * 触发惯性滑动时调用
+     */
+    protected void onFling() {
+        mFlingCount++;
+        if (mMetrics != null) {
+            mMetrics.onFling(mFlingCount);
+        }
+    }
+
+    /**
+     * 刻度可能发生了变化, 按回调策略决定是否回调
+     */
+    protected void dispatchScaleScroll(int scale) {
+        if (mScrollListener == null || mDispatchPolicy == DISPATCH_ON_SETTLE) {
+            return;
+        }
+        if (mGeometry.getSnapPoints() != null) {
+            // 滑动过程中回调离指针最近的可选刻度
+            scale = snapScale(scale);
+        }
+        mPendingScale = scale;
+        if (mHasDispatched && scale == mLastDispatchedScale) {
+            return;
+        }
+        if (mDispatchPolicy == DISPATCH_RATE_LIMITED) {
+            long elapsed = SystemClock.uptimeMillis() - mLastDispatchTime;
+            if (elapsed < mDispatchInterval) {
+                if (!mTrailingPosted) {
+                    mTrailingPosted = true;
+                    postDelayed(mTrailingDispatch, mDispatchInterval - elapsed);
+                }
+                return;
+            }
+        }
+        deliverScaleScroll(scale);
+    }
+
+    /**
+     * 滑动停止时调用, 同一刻度只回调一次
+     */
+    protected void dispatchScaleSettled(int scale) {
+        if (mTouching) {
+            return;
+        }
+        if (mGeometry.getSnapPoints() != null) {
+            // 缩小到一个像素对应多个刻度时, 指针处的刻度不一定是可选刻度
+            scale = snapScale(scale);
+        }
+        if (mScrollListener != null && mDispatchPolicy != DISPATCH_ON_CHANGE) {
+            // 停止时立即送达最后的刻度
+            if (mTrailingPosted) {
+                removeCallbacks(mTrailingDispatch);
+                mTrailingPosted = false;
+            }
+            if (!mHasDispatched || scale != mLastDispatchedScale) {
+                deliverScaleScroll(scale);
+            }
+        }
+        if (mSettledListener != null && (!mHasSettled || scale != mLastSettledScale)) {
+            mHasSettled = true;
+            mLastSettledScale = scale;
+            mSettledListener.onScaleSettled(scale);
+            countDispatch();
+        }
+    }
+
+    private void deliverScaleScroll(int scale) {
+        mHasDispatched = true;
+        mLastDispatchedScale = scale;
+        mLastDispatchTime = SystemClock.uptimeMillis();
+        mScrollListener.onScaleScroll(scale);
+        countDispatch();
+    }
+
+    private void countDispatch() {
+        mDispatchCount++;
+        if (mMetrics != null) {
+            mMetrics.onListenerDispatched(mDispatchCount);
+        }
+    }
+
+    private final Runnable mTrailingDispatch = new Runnable() {
+        @Override
+        public void run() {
+            mTrailingPosted = false;
+            if (mScrollListener != null && (!mHasDispatched || mPendingScale != mLastDispatchedScale)) {
+                deliverScaleScroll(mPendingScale);
+            }
+        }
+    };
+
+    /**
+     * 设置OnScrollListener的回调策略
+     *
+     * @param policy {@link #DISPATCH_ON_CHANGE}, {@link #DISPATCH_ON_SETTLE} 或 {@link #DISPATCH_RATE_LIMITED}
+     */
+    public void setDispatchPolicy(int policy) {
+        if (policy != DISPATCH_ON_CHANGE && policy != DISPATCH_ON_SETTLE && policy != DISPATCH_RATE_LIMITED) {
+            throw new IllegalArgumentException("Unknown dispatch policy: " + policy);
+        }
+        mDispatchPolicy = policy;
+        if (mTrailingPosted && policy != DISPATCH_RATE_LIMITED) {
+            removeCallbacks(mTrailingDispatch);
+            mTrailingPosted = false;
+        }
+    }
+
+    public int getDispatchPolicy() {
+        return mDispatchPolicy;
+    }
+
+    /**
+     * 设置限频回调的最小间隔, 只在{@link #DISPATCH_RATE_LIMITED}时生效
+     *
+     * @param intervalMillis 毫秒
+     */
+    public void setDispatchInterval(long intervalMillis) {
+        mDispatchInterval = Math.max(0, intervalMillis);
+    }
+
+    /**
+     * 设置性能统计回调, 为null时关闭统计. 回调在刻度尺所在的线程中执行
+     */
+    public void setMetrics(ScaleViewMetrics metrics) {
+        mMetrics = metrics;
+        mTouchUpNanos = 0;
+    }
+
+    /**
+     * 开启或关闭双指缩放
+     */
+    public void setZoomEnabled(boolean enabled) {
+        if (enabled == (mScaleDetector != null)) {
+            return;
+        }
+        if (enabled) {
+            mScaleDetector = new ScaleGestureDetector(getContext(), mPinchListener);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                // 双击后拖动会与滑动冲突
+                mScaleDetector.setQuickScaleEnabled(false);
+            }
+        } else {
+            mScaleDetector = null;
+        }
+    }
+
+    public boolean isZoomEnabled() {
+        return mScaleDetector != null;
+    }
+
+    /**
+     * 设置缩放比例的范围, 当前比例超出范围时立即调整
+     */
+    public void setZoomRange(float minZoom, float maxZoom) {
+        if (!(minZoom > 0) || maxZoom < minZoom) {
+            throw new IllegalArgumentException("invalid zoom range: " + minZoom + "/" + maxZoom);
+        }
+        mMinZoom = minZoom;
+        mMaxZoom = maxZoom;
+        if (mZoom < minZoom || mZoom > maxZoom) {
+            setZoom(mZoom, false);
+        }
+    }
+
+    public float getZoom() {
+        return mZoom;
+    }
+
+    boolean isZoomAnimating() {
+        return mZoomAnimating;
+    }
+
+    /**
+     * 以指针所在的刻度为中心, 动画缩放到指定比例
+     */
+    public void setZoom(float zoom) {
+        setZoom(zoom, true);
+    }
+
+    /**
+     * 以指针所在的刻度为中心缩放, 缩放后指针仍对齐到该刻度
+     *
+     * @param zoom    缩放比例, 1为样式中的刻度间距, 超出范围时截断
+     * @param animate 是否做动画
+     */
+    public void setZoom(float zoom, boolean animate) {
+        zoom = Math.max(mMinZoom, Math.min(mMaxZoom, zoom));
+        int start = getScrollPosition();
+        mScroller.abortAnimation();
+        mZoomAnchor = (int) ScaleMath.clamp(scaleAtScroll(start), mMin, mMax);
+        if (animate) {
+            moveScrollTo(start);
+            mZoomFrom = mZoom;
+            mZoomTo = zoom;
+            mZoomStartTime = SystemClock.uptimeMillis();
+            mZoomAnimating = true;
+            invalidate();
+        } else {
+            mZoomAnimating = false;
+            zoomAroundAnchor(zoom);
+            invalidate();
+        }
+    }
+
+    /**
+     * 计算缩放动画的一帧, 按比例的对数插值, 看起来匀速
+     *
+     * @return 动画是否还在进行
+     */
+    private boolean stepZoomAnimation() {
+        float t = Math.min(1f, (SystemClock.uptimeMillis() - mZoomStartTime) / (float) ZOOM_DURATION);
+        float fraction = 1 - (1 - t) * (1 - t);
+        zoomAroundAnchor((float) (mZoomFrom * Math.pow(mZoomTo / mZoomFrom, fraction)));
+        mZoomAnimating = t < 1;
+        return mZoomAnimating;
+    }
+
+    /**
+     * 缩放后指针对齐到缩放开始时的刻度, 中间的取整误差不会回调
+     */
+    private void zoomAroundAnchor(float zoom) {
+        mDeferDispatch = true;
+        applyZoom(zoom);
+        moveScrollTo(scrollForScale(mZoomAnchor));
+        mDeferDispatch = false;
+        dispatchScaleScroll(mCountScale);
+    }
+
+    /**
+     * 按缩放比例设置刻度间距, 指针处的内容坐标按比例换算, 指针指向的值不变
+     */
+    private void applyZoom(float zoom) {
+        zoom = Math.max(mMinZoom, Math.min(mMaxZoom, zoom));
+        mZoom = zoom;
+        long spacing = Math.max(1, Math.round(mScaleMargin * (double) ScaleGeometry.SPACING_ONE * zoom));
+        long oldSpacing = mGeometry.getSpacing();
+        if (spacing == oldSpacing) {
+            return;
+        }
+        int pointerOffset = mGeometry.getPointerOffset();
+        long pointer = getScrollPosition() + pointerOffset;
+        mGeometry.setSpacing(spacing);
+        moveScrollTo(clampPosition(ScaleMath.roundDiv(pointer * spacing, oldSpacing) - pointerOffset));
+        invalidateTiles();
+    }
+
+    /**
+     * 处理双指缩放
+     *
+     * @return 事件是否已被缩放消费
+     */
+    private boolean handlePinch(MotionEvent event) {
+        mScaleDetector.onTouchEvent(event);
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_POINTER_UP) {
+            // 剩下的手指继续滑动
+            int index = event.getActionIndex() == 0 ? 1 : 0;
+            mScrollLastX = isHorizontal() ? event.getX(index) : event.getY(index);
+            // 缩放改变了滚动偏移
+            mDragScroll = getScrollPosition();
+            return true;
+        }
+        if (action == MotionEvent.ACTION_POINTER_DOWN || mScaleDetector.isInProgress()) {
+            mPinched = true;
+            return true;
+        }
+        return false;
+    }
+
+    private final ScaleGestureDetector.SimpleOnScaleGestureListener mPinchListener =
+            new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+                @Override
+                public boolean onScaleBegin(ScaleGestureDetector detector) {
+                    // 停在当前位置, 以指针为中心缩放
+                    mZoomAnimating = false;
+                    moveScrollTo(getScrollPosition());
+                    return true;
+                }
+
+                @Override
+                public boolean onScale(ScaleGestureDetector detector) {
+                    applyZoom(mZoom * detector.getScaleFactor());
+                    invalidate();
+                    return true;
+                }
+            };
+
+    public void smoothScrollBy(int dx, int dy) {
+        mScroller.startScroll(mScroller.getFinalX(), mScroller.getFinalY(), dx, dy);
+    }
+
+    public void smoothScrollTo(int fx, int fy) {
+        int dx = fx - mScroller.getFinalX();
+        int dy = fy - mScroller.getFinalY();
+        smoothScrollBy(dx, dy);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+    }
+
+    /**
+     * 设置回调监听
+     *
+     * @param listener
+     */
+    public void setOnScrollListener(OnScrollListener listener) {
+        this.mScrollListener = listener;
+        mHasDispatched = false;
+    }
+
+    /**
+     * 设置滑动停止的回调监听
+     *
+     * @param listener
+     */
+    public void setOnScaleSettledListener(OnScaleSettledListener listener) {
+        this.mSettledListener = listener;
+        mHasSettled = false;
     }
 
     public static int dpToPx(int dp) {
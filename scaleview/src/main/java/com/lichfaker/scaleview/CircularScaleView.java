@@ -0,0 +1,423 @@
+package com.lichfaker.scaleview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+
+/**
+ * 圆形刻度盘, 例如温控器的旋钮. 指针固定在顶部, 刻度顺时针增大, 转动刻度盘选择刻度
+ * <p>
+ * 滚动偏移表示刻度圈上的弧长, 对齐, 惯性滑动和回调都沿用直尺的实现.
+ * 尺寸变化时预先计算每个刻度线端点和文字方向的表, 每帧只旋转一次画布, 按表绘制可见弧内的刻度,
+ * 不做三角函数计算, 也不分配内存. 手指的转角换算成弧长交给滑动处理, 惯性滑动的速度即为角速度.
+ * 刻度间距由直径和每圈刻度数决定, 不支持缩放, 位图缓存和数据序列
+ */
+public class CircularScaleView extends BaseScaleView {
+
+    private static final double TWO_PI = 2 * Math.PI;
+
+    private int mTicksPerTurn; //设置的每圈刻度数, 0表示按刻度间距计算
+    private float mSweepAngle = 360; //可见的弧, 以指针为中心, 度
+
+    private int mTurnTicks; //实际的每圈刻度数
+    private float mTurnLength; //一圈的弧长, 像素
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius; //刻度线外端的半径
+    private float[] mMinorTable; //第k个刻度的普通刻度线端点 [x0, y0, x1, y1]
+    private float[] mMajorTable; //第k个刻度的整刻度线端点
+    private Matrix[] mLabelMatrices; //把顶部的文字旋转到第k个刻度
+    private final RectF mArcRect = new RectF();
+    private final TickLayout mLayout = new TickLayout();
+    private final LineBatch mMinorLines = new LineBatch(64);
+    private final LineBatch mMajorLines = new LineBatch(8);
+
+    private int mActivePointerId;
+    private boolean mHasTouchAngle; //离圆心太近时角度不可靠, 等移出后再开始计算
+    private double mTouchAngle; //上一次触摸点的角度, 弧度
+    private float mTouchArc; //本次手势转过的弧长, 作为滑动的触摸位置
+
+    public CircularScaleView(Context context) {
+        super(context);
+    }
+
+    public CircularScaleView(Context context, ScaleStyle style) {
+        super(context, style);
+    }
+
+    public CircularScaleView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public CircularScaleView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public CircularScaleView(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        super(context, attrs, defStyleAttr, defStyleRes);
+    }
+
+    @Override
+    protected void initVar() {
+        // wrap_content时的直径
+        mRectWidth = mStyle.getCrossSize() * 2;
+        mRectHeight = mRectWidth;
+    }
+
+    @Override
+    protected boolean isHorizontal() {
+        // 弧长保存在水平的滚动偏移中
+        return true;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(resolveSize(mRectWidth, widthMeasureSpec), resolveSize(mRectHeight, heightMeasureSpec));
+        // 指针的内容坐标就是滚动偏移
+        setViewportRange(0);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        // 先按新的间距移动到原来的刻度, 再更新滚动状态
+        buildTables(w, h);
+        super.onSizeChanged(w, h, oldw, oldh);
+    }
+
+    /**
+     * 设置每圈的刻度数, 例如360
+     *
+     * @param ticks 0表示按样式中的刻度间距和直径计算
+     */
+    public void setTicksPerTurn(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("ticks per turn must not be negative: " + ticks);
+        }
+        mTicksPerTurn = ticks;
+        buildTables(getWidth(), getHeight());
+        invalidate();
+    }
+
+    public int getTicksPerTurn() {
+        return mTurnTicks;
+    }
+
+    /**
+     * 设置可见的弧, 以顶部的指针为中心, 例如270度时底部留出缺口
+     */
+    public void setSweepAngle(float degrees) {
+        if (!(degrees > 0) || degrees > 360) {
+            throw new IllegalArgumentException("sweep angle out of (0, 360]: " + degrees);
+        }
+        mSweepAngle = degrees;
+        invalidate();
+    }
+
+    public float getSweepAngle() {
+        return mSweepAngle;
+    }
+
+    @Override
+    public void setScaleStyle(ScaleStyle style) {
+        super.setScaleStyle(style);
+        // 间距和刻度线高度可能改变, 重新计算表
+        buildTables(getWidth(), getHeight());
+    }
+
+    /**
+     * 按尺寸计算刻度间距, 刻度线端点和文字方向的表, 指针处的刻度不变
+     */
+    private void buildTables(int w, int h) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        mCenterX = w / 2f;
+        mCenterY = h / 2f;
+        mRadius = Math.max(1, Math.min(w, h) / 2f - 1);
+        int ticks = mTicksPerTurn;
+        if (ticks == 0) {
+            ticks = (int) Math.max(1, Math.round(TWO_PI * mRadius / Math.max(1, mScaleMargin)));
+        }
+        long spacing = Math.max(1, Math.round(TWO_PI * mRadius / ticks * ScaleGeometry.SPACING_ONE));
+        mTurnTicks = ticks;
+        mTurnLength = ticks * (float) spacing / ScaleGeometry.SPACING_ONE;
+
+        if (mMinorTable == null || mMinorTable.length != ticks * 4) {
+            mMinorTable = new float[ticks * 4];
+            mMajorTable = new float[ticks * 4];
+            mLabelMatrices = new Matrix[ticks];
+            for (int k = 0; k < ticks; k++) {
+                mLabelMatrices[k] = new Matrix();
+            }
+        }
+        float minorRadius = mRadius - mScaleHeight;
+        float majorRadius = mRadius - mScaleMaxHeight;
+        for (int k = 0; k < ticks; k++) {
+            // 从顶部开始顺时针
+            double angle = TWO_PI * k / ticks;
+            float sin = (float) Math.sin(angle);
+            float cos = (float) Math.cos(angle);
+            int i = k * 4;
+            mMinorTable[i] = mMajorTable[i] = mCenterX + sin * mRadius;
+            mMinorTable[i + 1] = mMajorTable[i + 1] = mCenterY - cos * mRadius;
+            mMinorTable[i + 2] = mCenterX + sin * minorRadius;
+            mMinorTable[i + 3] = mCenterY - cos * minorRadius;
+            mMajorTable[i + 2] = mCenterX + sin * majorRadius;
+            mMajorTable[i + 3] = mCenterY - cos * majorRadius;
+            mLabelMatrices[k].setRotate(360f * k / ticks, mCenterX, mCenterY);
+        }
+
+        mScroller.abortAnimation();
+        mGeometry.setSpacing(spacing);
+        moveToScale(mCountScale);
+        invalidateTiles();
+    }
+
+    @Override
+    protected void updateVisibleRange(int scroll) {
+        // 指针两侧各半个可见弧, 少半个刻度, 整圈时首尾的刻度不会重叠
+        float spacing = mGeometry.getSpacing() / (float) ScaleGeometry.SPACING_ONE;
+        int half = (int) (mTurnLength * mSweepAngle / 720 - spacing / 2);
+        mGeometry.updateVisibleRange(scroll - half, scroll + half, 0);
+    }
+
+    @Override
+    protected void computeVisibleRange(Canvas canvas) {
+        // 可见范围由旋转的角度决定, 与裁剪区域无关
+        updateVisibleRange(getScrollX());
+        mFirstVisibleScale = ScaleMath.clampToInt(mGeometry.getFirstVisible());
+        mLastVisibleScale = ScaleMath.clampToInt(mGeometry.getLastVisible());
+    }
+
+    /**
+     * 指针处的内容坐标相对原点转过的刻度数
+     */
+    private double pointerSteps() {
+        return getScrollX() * (double) ScaleGeometry.SPACING_ONE / mGeometry.getSpacing();
+    }
+
+    /**
+     * 内容坐标对应的刻度在表中的下标
+     */
+    private int tableIndex(float position) {
+        // positionOf向下取整, 向上取整还原出相对原点的刻度数
+        long steps = ScaleMath.ceilDiv((long) position << ScaleGeometry.SPACING_SHIFT, mGeometry.getSpacing());
+        return (int) ScaleMath.floorMod(steps, mTurnTicks);
+    }
+
+    @Override
+    protected void onDrawLine(Canvas canvas, Paint paint) {
+        if (mTurnTicks == 0 || mLastVisibleScale < mFirstVisibleScale) {
+            return;
+        }
+        // 可见弧的基线, 0度在右侧
+        long step = mScaleModel.getStep();
+        long origin = mGeometry.getOrigin();
+        double degreesPerTick = 360.0 / mTurnTicks;
+        double first = ScaleMath.floorDiv(mFirstVisibleScale - origin, step) - pointerSteps();
+        double last = ScaleMath.floorDiv(mLastVisibleScale - origin, step) - pointerSteps();
+        float left = getScrollX() + mCenterX - mRadius;
+        float top = getScrollY() + mCenterY - mRadius;
+        mArcRect.set(left, top, left + 2 * mRadius, top + 2 * mRadius);
+        canvas.drawArc(mArcRect, (float) (first * degreesPerTick - 90),
+                (float) ((last - first) * degreesPerTick), false, paint);
+    }
+
+    @Override
+    protected void onDrawScale(Canvas canvas, Paint paint) {
+        if (mTurnTicks == 0) {
+            return;
+        }
+        // 布局得到可见的刻度和层次, 再按下标从表中取端点
+        mLayout.layout(mGeometry, true, 0, 1, 0, 0);
+        fillTicks(mLayout.getMinorTicks(), mMinorTable, mMinorLines);
+        fillTicks(mLayout.getMajorTicks(), mMajorTable, mMajorLines);
+
+        double turns = pointerSteps() / mTurnTicks;
+        canvas.save();
+        canvas.translate(getScrollX(), getScrollY());
+        canvas.rotate((float) (-360 * (turns - Math.floor(turns))), mCenterX, mCenterY);
+        if (mMinorLines.getCount() > 0) {
+            canvas.drawLines(mMinorLines.getPoints(), 0, mMinorLines.getCount(), paint);
+        }
+        if (mMajorLines.getCount() > 0) {
+            canvas.drawLines(mMajorLines.getPoints(), 0, mMajorLines.getCount(), paint);
+        }
+        // 文字沿半径方向, 在整刻度线内侧
+        float baseline = mCenterY - mRadius + mScaleMaxHeight + paint.getTextSize();
+        for (int i = 0, count = mLayout.getLabelCount(); i < count; i++) {
+            canvas.save();
+            canvas.concat(mLabelMatrices[tableIndex(mLayout.getLabelPosition(i))]);
+            drawLabel(canvas, (int) mLayout.getLabelValue(i), mCenterX, baseline, paint);
+            canvas.restore();
+        }
+        canvas.restore();
+    }
+
+    /**
+     * 把布局中的刻度线换成表中对应下标的端点
+     */
+    private void fillTicks(LineBatch layout, float[] table, LineBatch lines) {
+        lines.reset();
+        int count = layout.getLineCount();
+        lines.ensureCapacity(count);
+        float[] points = layout.getPoints();
+        for (int i = 0; i < count; i++) {
+            int k = tableIndex(points[i * 4]) * 4;
+            lines.add(table[k], table[k + 1], table[k + 2], table[k + 3]);
+        }
+    }
+
+    @Override
+    protected void onDrawPointer(Canvas canvas, Paint paint) {
+        // 指针固定在顶部
+        float x = getScrollX() + mCenterX;
+        float y = getScrollY() + mCenterY - mRadius;
+        canvas.drawLine(x, y, x, y + mScaleMaxHeight + mScaleHeight, paint);
+    }
+
+    @Override
+    public void scrollToScale(int val) {
+        if (val < mMin || val > mMax) {
+            return;
+        }
+        val = snapScale(val);
+        if (jumpToScale(val)) {
+            postInvalidate();
+            return;
+        }
+        int dx = scaleToPosition(val) - scaleToPosition(mCountScale);
+        smoothScrollBy(dx, 0);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        switch (action) {
+            case MotionEvent.ACTION_DOWN:
+                mActivePointerId = event.getPointerId(0);
+                mHasTouchAngle = false;
+                mTouchArc = 0;
+                break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                return true;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (event.getPointerId(event.getActionIndex()) == mActivePointerId) {
+                    // 剩下的手指从它自己的角度开始继续转动
+                    int index = event.getActionIndex() == 0 ? 1 : 0;
+                    mActivePointerId = event.getPointerId(index);
+                    mHasTouchAngle = false;
+                    trackAngle(event.getX(index), event.getY(index));
+                }
+                return true;
+        }
+        int index = Math.max(0, event.findPointerIndex(mActivePointerId));
+        MotionEvent arcEvent = toArcEvent(event, index, action);
+        boolean handled = super.onTouchEvent(arcEvent);
+        arcEvent.recycle();
+        return handled;
+    }
+
+    /**
+     * 把触摸点换成转过的弧长, 批量的历史采样也一起换算, 惯性滑动的速度不会漏掉两次事件之间的转动
+     */
+    private MotionEvent toArcEvent(MotionEvent event, int index, int action) {
+        MotionEvent arcEvent = null;
+        int metaState = event.getMetaState();
+        if (action == MotionEvent.ACTION_MOVE) {
+            for (int h = 0, history = event.getHistorySize(); h < history; h++) {
+                float arc = trackAngle(event.getHistoricalX(index, h), event.getHistoricalY(index, h));
+                long time = event.getHistoricalEventTime(h);
+                if (arcEvent == null) {
+                    arcEvent = MotionEvent.obtain(event.getDownTime(), time, action, arc, 0, metaState);
+                } else {
+                    arcEvent.addBatch(time, arc, 0, 1, 1, metaState);
+                }
+            }
+        }
+        float arc = trackAngle(event.getX(index), event.getY(index));
+        if (arcEvent == null) {
+            return MotionEvent.obtain(event.getDownTime(), event.getEventTime(), action, arc, 0, metaState);
+        }
+        arcEvent.addBatch(event.getEventTime(), arc, 0, 1, 1, metaState);
+        return arcEvent;
+    }
+
+    /**
+     * 累计触摸点绕圆心转过的角度
+     *
+     * @return 本次手势转过的弧长, 顺时针为正
+     */
+    private float trackAngle(float x, float y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        float minRadius = mRadius / 4;
+        if (dx * dx + dy * dy < minRadius * minRadius) {
+            return mTouchArc;
+        }
+        double angle = Math.atan2(dy, dx);
+        if (mHasTouchAngle) {
+            double delta = angle - mTouchAngle;
+            // 越过-180度时取较短的方向
+            if (delta > Math.PI) {
+                delta -= TWO_PI;
+            } else if (delta < -Math.PI) {
+                delta += TWO_PI;
+            }
+            mTouchArc += delta / TWO_PI * mTurnLength;
+        }
+        mTouchAngle = angle;
+        mHasTouchAngle = true;
+        return mTouchArc;
+    }
+
+    /**
+     * 刻度间距由直径决定, 不支持缩放
+     */
+    @Override
+    public void setZoomEnabled(boolean enabled) {
+        super.setZoomEnabled(false);
+    }
+
+    /**
+     * 刻度间距由直径决定, 不支持缩放
+     */
+    @Override
+    public void setZoom(float zoom, boolean animate) {
+    }
+
+    /**
+     * 刻度盘每帧旋转, 不使用位图缓存
+     */
+    @Override
+    public void setTileCacheEnabled(boolean enabled) {
+    }
+
+    /**
+     * 刻度盘每帧旋转, 不使用位图缓存
+     */
+    @Override
+    public void setTileCacheMaxBytes(int maxBytes) {
+    }
+
+    /**
+     * 数据序列只沿直尺绘制
+     */
+    @Override
+    public void setSeries(SeriesPyramid series) {
+    }
+
+    /**
+     * 高亮区间和标记只沿直尺绘制
+     */
+    @Override
+    public void setRangeOverlay(RangeOverlay overlay) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.lichfaker.scaleview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * 帧节拍: 在创建它的线程上每次请求只回调一次, 随vsync执行
+ * <p>
+ * API 16以上使用当前线程的Choreographer, 更低的版本没有Choreographer, 用Handler按固定间隔对齐
+ */
+abstract class FramePacer {
+
+    static final long FRAME_MILLIS = 16; //没有Choreographer时的帧间隔
+
+    /**
+     * @param handler 当前线程的Handler, 只在没有Choreographer时使用
+     * @param frame   每帧执行的任务
+     */
+    static FramePacer create(Handler handler, Runnable frame) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new VsyncPacer(frame) : new HandlerPacer(handler, frame);
+    }
+
+    /**
+     * 请求下一帧, 同一帧内的多次请求只回调一次
+     */
+    abstract void schedule();
+
+    /**
+     * 取消还没有执行的请求
+     */
+    abstract void cancel();
+
+    private static final class HandlerPacer extends FramePacer implements Runnable {
+
+        private final Handler mHandler;
+        private final Runnable mFrame;
+        private boolean mScheduled;
+        private long mLastFrameTime;
+
+        HandlerPacer(Handler handler, Runnable frame) {
+            mHandler = handler;
+            mFrame = frame;
+        }
+
+        @Override
+        void schedule() {
+            if (mScheduled) {
+                return;
+            }
+            mScheduled = true;
+            long now = SystemClock.uptimeMillis();
+            long delay = Math.max(0, mLastFrameTime + FRAME_MILLIS - now);
+            mLastFrameTime = now + delay;
+            mHandler.postDelayed(this, delay);
+        }
+
+        @Override
+        void cancel() {
+            mScheduled = false;
+            mHandler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            mScheduled = false;
+            mFrame.run();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class VsyncPacer extends FramePacer implements Choreographer.FrameCallback {
+
+        private final Choreographer mChoreographer = Choreographer.getInstance();
+        private final Runnable mFrame;
+        private boolean mScheduled;
+
+        VsyncPacer(Runnable frame) {
+            mFrame = frame;
+        }
+
+        @Override
+        void schedule() {
+            if (!mScheduled) {
+                mScheduled = true;
+                mChoreographer.postFrameCallback(this);
+            }
+        }
+
+        @Override
+        void cancel() {
+            if (mScheduled) {
+                mScheduled = false;
+                mChoreographer.removeFrameCallback(this);
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mScheduled = false;
+            mFrame.run();
+        }
+    }
+}
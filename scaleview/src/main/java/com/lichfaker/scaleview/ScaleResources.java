@@ -0,0 +1,78 @@
+package com.lichfaker.scaleview;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * 样式相同的刻度尺共享的绘制资源
+ * <p>
+ * 列表中的每一行都是一个刻度尺时, 画笔和默认格式的文字缓存只按样式创建一份.
+ * 画笔创建后不再修改, 共享的对象只能在主线程使用, 其他线程中的刻度尺使用{@link #createPrivate(int, int)}
+ */
+final class ScaleResources {
+
+    private static final HashMap<Long, WeakReference<ScaleResources>> sCache = new HashMap<>();
+
+    final Paint scalePaint; //基线, 刻度线和刻度文字
+    final Paint pointerPaint; //指针
+    final LabelCache labelCache; //默认格式的刻度文字
+
+    private ScaleResources(int textSize, int precision) {
+        scalePaint = createPaint(Color.GRAY);
+        scalePaint.setTextSize(textSize);
+        pointerPaint = createPaint(Color.RED);
+        labelCache = new LabelCache(new DefaultLabelFormatter(precision));
+    }
+
+    private static Paint createPaint(int color) {
+        Paint paint = new Paint();
+        // 抗锯齿
+        paint.setAntiAlias(true);
+        // 设定是否使用图像抖动处理，会使绘制出来的图片颜色更加平滑和饱满，图像更加清晰
+        paint.setDither(true);
+        // 空心
+        paint.setStyle(Paint.Style.STROKE);
+        // 文字居中
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setColor(color);
+        return paint;
+    }
+
+    /**
+     * 获取样式对应的资源, 没有刻度尺引用的资源会被回收
+     *
+     * @param textSize  刻度文字大小, 像素
+     * @param precision 刻度值的小数位数
+     */
+    static ScaleResources obtain(int textSize, int precision) {
+        long key = ((long) textSize << 32) | (precision & 0xFFFFFFFFL);
+        WeakReference<ScaleResources> ref = sCache.get(key);
+        ScaleResources resources = ref != null ? ref.get() : null;
+        if (resources == null) {
+            purge();
+            resources = new ScaleResources(textSize, precision);
+            sCache.put(key, new WeakReference<>(resources));
+        }
+        return resources;
+    }
+
+    /**
+     * 创建不共享的资源, 用于在渲染线程中绘制的刻度尺, 不会和主线程中的刻度尺同时修改文字缓存和画笔
+     */
+    static ScaleResources createPrivate(int textSize, int precision) {
+        return new ScaleResources(textSize, precision);
+    }
+
+    private static void purge() {
+        Iterator<WeakReference<ScaleResources>> it = sCache.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.lichfaker.scaleview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+
+/**
+ * 刻度尺的样式和初始刻度模型, 创建后不可修改
+ * <p>
+ * 从xml解析或用{@link Builder}创建一次后可以在多个刻度尺之间共享,
+ * 派生的尺寸(整刻度线高度, 刻度尺宽度, 文字大小)在创建时算好, 创建View时只需复制字段
+ */
+public final class ScaleStyle {
+
+    /**
+     * 没有设置任何属性时的样式
+     */
+    public static final ScaleStyle DEFAULT = new Builder().build();
+
+    private final ScaleModel mModel;
+    private final int mScaleMargin;
+    private final int mScaleHeight;
+    private final int mScaleMaxHeight;
+    private final int mCrossSize;
+    private final int mTextSize;
+    private final boolean mVirtualScroll;
+    private final boolean mZoomEnabled;
+    private final float mMinZoom;
+    private final float mMaxZoom;
+
+    private ScaleStyle(Builder builder) {
+        mModel = builder.mModel;
+        mScaleMargin = builder.mScaleMargin;
+        mScaleHeight = builder.mScaleHeight;
+        mScaleMaxHeight = mScaleHeight * 2;
+        mCrossSize = mScaleHeight * 8;
+        mTextSize = mCrossSize / 4;
+        mVirtualScroll = builder.mVirtualScroll;
+        mZoomEnabled = builder.mZoomEnabled;
+        mMinZoom = builder.mMinZoom;
+        mMaxZoom = builder.mMaxZoom;
+    }
+
+    /**
+     * 解析xml中的自定义属性, 没有属性时直接返回{@link #DEFAULT}
+     */
+    public static ScaleStyle fromAttributes(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        if (attrs == null && defStyleAttr == 0 && defStyleRes == 0) {
+            return DEFAULT;
+        }
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.ScaleViewProperty, defStyleAttr, defStyleRes);
+        int min = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_min, 0);
+        int max = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_max, 200);
+        int step = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_step, 1);
+        int precision = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_precision, 0);
+        int minorInterval = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_minor_interval, 1);
+        int majorInterval = typedArray.getInteger(R.styleable.ScaleViewProperty_lf_scale_view_major_interval, 10);
+        Builder builder = new Builder()
+                .setScaleMargin(Math.max(1, typedArray.getDimensionPixelOffset(R.styleable.ScaleViewProperty_lf_scale_view_margin, 15)))
+                .setScaleHeight(typedArray.getDimensionPixelOffset(R.styleable.ScaleViewProperty_lf_scale_view_height, 20))
+                .setVirtualScroll(typedArray.getBoolean(R.styleable.ScaleViewProperty_lf_scale_view_virtual, false))
+                .setZoomEnabled(typedArray.getBoolean(R.styleable.ScaleViewProperty_lf_scale_view_zoomable, false))
+                .setZoomRange(typedArray.getFloat(R.styleable.ScaleViewProperty_lf_scale_view_min_zoom, Builder.DEFAULT_MIN_ZOOM),
+                        typedArray.getFloat(R.styleable.ScaleViewProperty_lf_scale_view_max_zoom, Builder.DEFAULT_MAX_ZOOM));
+        typedArray.recycle();
+        return builder.setModel(new ScaleModel(min, max, step, precision, minorInterval, majorInterval)).build();
+    }
+
+    public ScaleModel getModel() {
+        return mModel;
+    }
+
+    /**
+     * 刻度间距
+     */
+    public int getScaleMargin() {
+        return mScaleMargin;
+    }
+
+    /**
+     * 刻度线的高度
+     */
+    public int getScaleHeight() {
+        return mScaleHeight;
+    }
+
+    /**
+     * 整刻度线的高度
+     */
+    public int getScaleMaxHeight() {
+        return mScaleMaxHeight;
+    }
+
+    /**
+     * 刻度尺垂直于滚动方向的尺寸
+     */
+    public int getCrossSize() {
+        return mCrossSize;
+    }
+
+    /**
+     * 刻度文字的大小
+     */
+    public int getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * 每隔多少个刻度绘制一条整刻度线和文字
+     */
+    public int getMajorInterval() {
+        return mModel.getMajorInterval();
+    }
+
+    public boolean isVirtualScroll() {
+        return mVirtualScroll;
+    }
+
+    /**
+     * 是否支持双指缩放
+     */
+    public boolean isZoomEnabled() {
+        return mZoomEnabled;
+    }
+
+    /**
+     * 最小缩放比例, 1为不缩放
+     */
+    public float getMinZoom() {
+        return mMinZoom;
+    }
+
+    /**
+     * 最大缩放比例
+     */
+    public float getMaxZoom() {
+        return mMaxZoom;
+    }
+
+    /**
+     * 以当前样式为基础修改部分属性
+     */
+    public Builder buildUpon() {
+        return new Builder()
+                .setModel(mModel)
+                .setScaleMargin(mScaleMargin)
+                .setScaleHeight(mScaleHeight)
+                .setVirtualScroll(mVirtualScroll)
+                .setZoomEnabled(mZoomEnabled)
+                .setZoomRange(mMinZoom, mMaxZoom);
+    }
+
+    public static final class Builder {
+
+        static final float DEFAULT_MIN_ZOOM = 0.01f;
+        static final float DEFAULT_MAX_ZOOM = 4f;
+
+        private ScaleModel mModel = ScaleModel.ofInt(0, 200);
+        private int mScaleMargin = 15;
+        private int mScaleHeight = 20;
+        private boolean mVirtualScroll;
+        private boolean mZoomEnabled;
+        private float mMinZoom = DEFAULT_MIN_ZOOM;
+        private float mMaxZoom = DEFAULT_MAX_ZOOM;
+
+        public Builder setModel(ScaleModel model) {
+            if (model == null) {
+                throw new IllegalArgumentException("model == null");
+            }
+            mModel = model;
+            return this;
+        }
+
+        /**
+         * @param margin 刻度间距, 像素
+         */
+        public Builder setScaleMargin(int margin) {
+            if (margin <= 0) {
+                throw new IllegalArgumentException("margin must be positive: " + margin);
+            }
+            mScaleMargin = margin;
+            return this;
+        }
+
+        /**
+         * @param height 刻度线的高度, 像素, 其余尺寸按该值推算
+         */
+        public Builder setScaleHeight(int height) {
+            if (height < 0) {
+                throw new IllegalArgumentException("height must not be negative: " + height);
+            }
+            mScaleHeight = height;
+            return this;
+        }
+
+        public Builder setVirtualScroll(boolean virtualScroll) {
+            mVirtualScroll = virtualScroll;
+            return this;
+        }
+
+        public Builder setZoomEnabled(boolean zoomEnabled) {
+            mZoomEnabled = zoomEnabled;
+            return this;
+        }
+
+        /**
+         * @param minZoom 最小缩放比例, 大于0
+         * @param maxZoom 最大缩放比例, 不小于minZoom
+         */
+        public Builder setZoomRange(float minZoom, float maxZoom) {
+            if (!(minZoom > 0) || maxZoom < minZoom) {
+                throw new IllegalArgumentException("invalid zoom range: " + minZoom + "/" + maxZoom);
+            }
+            mMinZoom = minZoom;
+            mMaxZoom = maxZoom;
+            return this;
+        }
+
+        public ScaleStyle build() {
+            return new ScaleStyle(this);
+        }
+    }
+}
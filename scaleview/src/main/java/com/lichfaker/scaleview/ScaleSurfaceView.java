@@ -0,0 +1,402 @@
+package com.lichfaker.scaleview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在独立渲染线程中滑动和绘制的刻度尺, UI线程繁忙时滑动依然流畅
+ * <p>
+ * 刻度和指针的绘制复用{@link HorizontalScaleScrollView}/{@link VerticalScaleScrollView}:
+ * 内部的刻度尺不挂载到窗口, 只在渲染线程中使用. 触摸事件通过无锁队列交给渲染线程,
+ * 渲染线程按vsync(API 16以下按16ms)绘制一帧. 回调在UI线程执行, UI线程来不及处理时只回调最新的刻度
+ */
+public class ScaleSurfaceView extends SurfaceView implements SurfaceHolder.Callback {
+
+    public static final int HORIZONTAL = 0;
+    public static final int VERTICAL = 1;
+
+    // 渲染线程的消息
+    private static final int MSG_WAKE = 1;
+    private static final int MSG_SURFACE_CHANGED = 2;
+    private static final int MSG_SET_SCALE = 3;
+    private static final int MSG_SET_ZOOM = 4;
+    private static final int MSG_SET_METRICS = 5;
+    // UI线程的消息
+    private static final int MSG_SCALE_SCROLL = 10;
+    private static final int MSG_SCALE_SETTLED = 11;
+
+    private final int mOrientation;
+    private final BaseScaleView mRuler; //挂载后只在渲染线程中访问
+    private final int mContentLength;
+    private final int mCrossSize;
+    private final TouchQueue mTouchQueue = new TouchQueue(128);
+    private final AtomicBoolean mFrameRequested = new AtomicBoolean();
+    private final Object mSurfaceLock = new Object();
+    private boolean mSurfaceValid; //由mSurfaceLock保护, 绘制时持有该锁, surface销毁后不再绘制
+    private volatile int mRulerBackgroundColor = Color.WHITE;
+
+    private HandlerThread mRenderThread;
+    private Handler mRenderHandler;
+
+    // 以下字段只在渲染线程中访问
+    private FramePacer mPacer;
+    private boolean mSized;
+    private boolean mWasScrolling;
+    private boolean mHasPendingScale;
+    private int mPendingScale;
+
+    private BaseScaleView.OnScrollListener mScrollListener;
+    private BaseScaleView.OnScaleSettledListener mSettledListener;
+
+    public ScaleSurfaceView(Context context, ScaleStyle style, int orientation) {
+        super(context);
+        mOrientation = orientation;
+        mRuler = createRuler(context, style, orientation);
+        mContentLength = mRuler.getContentLength();
+        mCrossSize = style.getCrossSize();
+        init();
+    }
+
+    public ScaleSurfaceView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ScaleSurfaceView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        ScaleStyle style = ScaleStyle.fromAttributes(context, attrs, defStyleAttr, 0);
+        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.ScaleViewProperty, defStyleAttr, 0);
+        mOrientation = typedArray.getInt(R.styleable.ScaleViewProperty_lf_scale_view_orientation, HORIZONTAL);
+        typedArray.recycle();
+        mRuler = createRuler(context, style, mOrientation);
+        mContentLength = mRuler.getContentLength();
+        mCrossSize = style.getCrossSize();
+        init();
+    }
+
+    private static BaseScaleView createRuler(Context context, ScaleStyle style, int orientation) {
+        if (orientation == VERTICAL) {
+            return new VerticalScaleScrollView(context, style);
+        }
+        return new HorizontalScaleScrollView(context, style);
+    }
+
+    private void init() {
+        // 内部的刻度尺在渲染线程中绘制, 不能与主线程中同样式的刻度尺共享文字缓存和画笔
+        mRuler.usePrivateResources();
+        mRuler.setOnScrollListener(new BaseScaleView.OnScrollListener() {
+            @Override
+            public void onScaleScroll(int scale) {
+                // 渲染线程 -> UI线程, 未处理的旧刻度直接丢弃
+                mMainHandler.removeMessages(MSG_SCALE_SCROLL);
+                mMainHandler.obtainMessage(MSG_SCALE_SCROLL, scale, 0).sendToTarget();
+            }
+        });
+        mRuler.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                mMainHandler.obtainMessage(MSG_SCALE_SETTLED, scale, 0).sendToTarget();
+            }
+        });
+        getHolder().addCallback(this);
+    }
+
+    public int getOrientation() {
+        return mOrientation;
+    }
+
+    /**
+     * 刻度尺的背景色, surface不透明, 每帧先用该颜色清屏
+     */
+    public void setRulerBackgroundColor(int color) {
+        mRulerBackgroundColor = color;
+        requestFrame();
+    }
+
+    /**
+     * 设置回调监听, 在UI线程中回调
+     */
+    public void setOnScrollListener(BaseScaleView.OnScrollListener listener) {
+        mScrollListener = listener;
+    }
+
+    /**
+     * 设置滑动停止的回调监听, 在UI线程中回调
+     */
+    public void setOnScaleSettledListener(BaseScaleView.OnScaleSettledListener listener) {
+        mSettledListener = listener;
+    }
+
+    /**
+     * 滑动到指定刻度, 可以在surface创建之前调用
+     */
+    public void setCurScale(int val) {
+        Handler handler = mRenderHandler;
+        if (handler != null) {
+            handler.obtainMessage(MSG_SET_SCALE, val, 0).sendToTarget();
+        } else {
+            // 渲染线程还没有启动, 直接记录
+            mPendingScale = val;
+            mHasPendingScale = true;
+        }
+    }
+
+    /**
+     * 当前刻度的数据流, 由渲染线程发布, 任意线程都可以读取或等待
+     */
+    public ScaleValueStream getValueStream() {
+        return mRuler.getValueStream();
+    }
+
+    /**
+     * 以指针所在的刻度为中心动画缩放, 在渲染线程中执行. 只转发单指事件, 不支持双指缩放
+     */
+    public void setZoom(float zoom) {
+        Handler handler = mRenderHandler;
+        if (handler != null) {
+            handler.obtainMessage(MSG_SET_ZOOM, Float.floatToIntBits(zoom), 0).sendToTarget();
+        }
+    }
+
+    /**
+     * 设置性能统计回调, 为null时关闭统计. 回调在渲染线程中执行
+     */
+    public void setMetrics(ScaleViewMetrics metrics) {
+        Handler handler = mRenderHandler;
+        if (handler != null) {
+            handler.obtainMessage(MSG_SET_METRICS, metrics).sendToTarget();
+        } else {
+            // 渲染线程还没有启动, 启动后才会读取
+            mRuler.setMetrics(metrics);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        boolean horizontal = mOrientation != VERTICAL;
+        setMeasuredDimension(resolveSize(horizontal ? mContentLength : mCrossSize, widthMeasureSpec),
+                resolveSize(horizontal ? mCrossSize : mContentLength, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mRenderThread = new HandlerThread("ScaleRender", Process.THREAD_PRIORITY_DISPLAY);
+        mRenderThread.start();
+        mRenderHandler = new Handler(mRenderThread.getLooper(), mRenderCallback);
+        mRuler.setOwnerLooper(mRenderThread.getLooper());
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        Handler handler = mRenderHandler;
+        mRenderHandler = null;
+        handler.removeCallbacksAndMessages(null);
+        mRenderThread.quit();
+        try {
+            // 等待渲染线程结束, 之后内部的刻度尺可以交给下一个渲染线程
+            mRenderThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mRenderThread = null;
+        mPacer = null;
+        mFrameRequested.set(false);
+        mMainHandler.removeCallbacksAndMessages(null);
+    }
+
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        synchronized (mSurfaceLock) {
+            mSurfaceValid = true;
+        }
+        Handler handler = mRenderHandler;
+        if (handler != null) {
+            handler.obtainMessage(MSG_SURFACE_CHANGED, width, height).sendToTarget();
+        }
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        // 返回后渲染线程不会再使用surface
+        synchronized (mSurfaceLock) {
+            mSurfaceValid = false;
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_MOVE
+                || action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            if (action == MotionEvent.ACTION_MOVE) {
+                // 批量的MOVE中较早的采样也送到渲染线程, 惯性滑动的速度与普通View一样按全部采样计算
+                for (int h = 0, history = event.getHistorySize(); h < history; h++) {
+                    mTouchQueue.offer(action, event.getHistoricalX(h), event.getHistoricalY(h), event.getDownTime(),
+                            event.getHistoricalEventTime(h), true);
+                }
+            }
+            mTouchQueue.offer(action, event.getX(), event.getY(), event.getDownTime(), event.getEventTime(),
+                    action == MotionEvent.ACTION_MOVE);
+            requestFrame();
+        }
+        return true;
+    }
+
+    /**
+     * 请求渲染线程绘制一帧, 可以在任意线程调用, 同一帧内的多次请求只发送一次消息
+     */
+    private void requestFrame() {
+        Handler handler = mRenderHandler;
+        if (handler != null && mFrameRequested.compareAndSet(false, true)) {
+            handler.sendEmptyMessage(MSG_WAKE);
+        }
+    }
+
+    private final Handler.Callback mRenderCallback = new Handler.Callback() {
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_WAKE:
+                    if (mPacer == null) {
+                        mPacer = FramePacer.create(msg.getTarget(), mFrameRunnable);
+                    }
+                    mPacer.schedule();
+                    return true;
+                case MSG_SURFACE_CHANGED:
+                    onSurfaceSizeChanged(msg.arg1, msg.arg2);
+                    return true;
+                case MSG_SET_SCALE:
+                    if (mSized) {
+                        mRuler.setCurScale(msg.arg1);
+                    } else {
+                        mPendingScale = msg.arg1;
+                        mHasPendingScale = true;
+                    }
+                    requestFrame();
+                    return true;
+                case MSG_SET_ZOOM:
+                    mRuler.setZoom(Float.intBitsToFloat(msg.arg1), mSized);
+                    requestFrame();
+                    return true;
+                case MSG_SET_METRICS:
+                    mRuler.setMetrics((ScaleViewMetrics) msg.obj);
+                    return true;
+            }
+            return false;
+        }
+    };
+
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            doFrame();
+        }
+    };
+
+    private void onSurfaceSizeChanged(int width, int height) {
+        int current = mHasPendingScale ? mPendingScale : mRuler.mCountScale;
+        mHasPendingScale = false;
+        mRuler.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        mRuler.layout(0, 0, width, height);
+        // 大小变化后中间刻度改变, 重新定位到原来的刻度
+        mRuler.bind(mRuler.getScaleModel(), current);
+        mSized = true;
+        requestFrame();
+    }
+
+    /**
+     * 渲染线程中的一帧: 处理触摸事件, 计算滚动并绘制
+     */
+    private void doFrame() {
+        mFrameRequested.set(false);
+        if (!mSized) {
+            return;
+        }
+        int slot;
+        while ((slot = mTouchQueue.peek()) >= 0) {
+            int action = mTouchQueue.getAction(slot);
+            long downTime = mTouchQueue.getDownTime(slot);
+            MotionEvent event = MotionEvent.obtain(downTime, mTouchQueue.getEventTime(slot),
+                    action, mTouchQueue.getX(slot), mTouchQueue.getY(slot), 0);
+            mTouchQueue.remove();
+            if (action == MotionEvent.ACTION_MOVE) {
+                // 连续的MOVE合并为一个带历史采样的事件, 与UI线程收到的批量事件一致
+                while ((slot = mTouchQueue.peek()) >= 0 && mTouchQueue.getAction(slot) == MotionEvent.ACTION_MOVE
+                        && mTouchQueue.getDownTime(slot) == downTime) {
+                    event.addBatch(mTouchQueue.getEventTime(slot), mTouchQueue.getX(slot), mTouchQueue.getY(slot),
+                            1f, 1f, 0);
+                    mTouchQueue.remove();
+                }
+            }
+            mRuler.onTouchEvent(event);
+            event.recycle();
+        }
+        mRuler.computeScroll();
+        drawFrame();
+        // 滑动停止后再画一帧, 用于回调滑动停止
+        boolean scrolling = !mRuler.mScroller.isFinished() || mRuler.isZoomAnimating();
+        if (scrolling || mWasScrolling) {
+            requestFrame();
+        }
+        mWasScrolling = scrolling;
+    }
+
+    private void drawFrame() {
+        synchronized (mSurfaceLock) {
+            if (!mSurfaceValid) {
+                return;
+            }
+            SurfaceHolder holder = getHolder();
+            Canvas canvas = holder.lockCanvas();
+            if (canvas == null) {
+                return;
+            }
+            try {
+                canvas.drawColor(mRulerBackgroundColor);
+                // 刻度尺按内容坐标绘制
+                canvas.translate(-mRuler.getScrollX(), -mRuler.getScrollY());
+                mRuler.onDraw(canvas);
+            } finally {
+                holder.unlockCanvasAndPost(canvas);
+            }
+        }
+    }
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper()) {
+        @Override
+        public void handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_SCALE_SCROLL:
+                    if (mScrollListener != null) {
+                        mScrollListener.onScaleScroll(msg.arg1);
+                    }
+                    break;
+                case MSG_SCALE_SETTLED:
+                    if (mSettledListener != null) {
+                        mSettledListener.onScaleSettled(msg.arg1);
+                    }
+                    break;
+            }
+        }
+    };
+}
@@ -0,0 +1,198 @@
+package com.lichfaker.scaleview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+/**
+ * 刻度尺内容的位图缓存
+ * <p>
+ * 刻度尺沿滚动方向被切分为固定大小的块, 每块只绘制一次, 之后每帧只需按滚动偏移绘制位图.
+ * 缓存按字节数淘汰最久未使用的块. 块的下标保存在int数组中, 查找时不装箱, 每帧不分配内存.
+ * 每个槽位的位图只在块的尺寸改变时创建, 淘汰或内容变化后清空并重绘到同一个位图中
+ */
+class ScaleTileCache {
+
+    static final int TILE_SIZE = 256; //每块沿滚动方向的像素
+    static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_SLOTS = 64; //块数的上限, 查找是线性的
+    private static final int EXTRA_SLOTS = 3; //可见区域跨过的半块和两侧预取的块
+
+    private final BaseScaleView mView;
+    private final int mMaxBytes;
+    private int mTileWidth;
+    private int mTileHeight;
+    // 每个槽位保存一块, 位图为null时还没有创建, mValid为false时内容已过期
+    private int[] mIndices = new int[0];
+    private Bitmap[] mBitmaps = new Bitmap[0];
+    private boolean[] mValid = new boolean[0];
+    private long[] mLastUsed = new long[0]; //最近一次使用的序号, 淘汰最小的
+    private long mUseCount;
+    private final Canvas mTileCanvas = new Canvas(); //绘制块时复用
+
+    ScaleTileCache(BaseScaleView view, int maxBytes) {
+        mView = view;
+        mMaxBytes = maxBytes;
+    }
+
+    int getMaxBytes() {
+        return mMaxBytes;
+    }
+
+    /**
+     * 绘制[start, end]范围内的块, 坐标为滚动方向上的内容坐标
+     *
+     * @param cross 垂直于滚动方向的尺寸
+     */
+    void draw(Canvas canvas, int start, int end, int cross) {
+        setTileSize(cross, end - start);
+        if (cross <= 0) {
+            return;
+        }
+        boolean horizontal = mView.isHorizontal();
+        for (int i = tileIndex(start), last = tileIndex(end - 1); i <= last; i++) {
+            Bitmap tile = getTile(i);
+            int offset = i * TILE_SIZE;
+            canvas.drawBitmap(tile, horizontal ? offset : 0, horizontal ? 0 : offset, null);
+        }
+    }
+
+    /**
+     * 预先绘制[start, end]前后各一块, 在空闲时调用
+     *
+     * @return 是否绘制了新的块
+     */
+    boolean prefetch(int start, int end) {
+        if (mTileWidth <= 0 || mTileHeight <= 0) {
+            return false;
+        }
+        boolean rendered = false;
+        int before = tileIndex(start) - 1;
+        int after = tileIndex(end - 1) + 1;
+        if (find(before) < 0) {
+            getTile(before);
+            rendered = true;
+        }
+        if (find(after) < 0) {
+            getTile(after);
+            rendered = true;
+        }
+        return rendered;
+    }
+
+    /**
+     * 内容发生变化, 保留位图, 下次使用时重绘
+     */
+    void clear() {
+        for (int i = 0; i < mValid.length; i++) {
+            mValid[i] = false;
+        }
+    }
+
+    /**
+     * 释放所有位图, 离开窗口时调用
+     */
+    void release() {
+        for (int i = 0; i < mBitmaps.length; i++) {
+            mBitmaps[i] = null;
+            mValid[i] = false;
+        }
+    }
+
+    /**
+     * @param length 可见区域沿滚动方向的长度
+     */
+    private void setTileSize(int cross, int length) {
+        int width = mView.isHorizontal() ? TILE_SIZE : cross;
+        int height = mView.isHorizontal() ? cross : TILE_SIZE;
+        // 槽位放不下可见的块和两侧预取的块时每帧都要重绘, 此时不受字节数上限的限制
+        int visibleSlots = Math.min(MAX_SLOTS, (Math.max(0, length) + TILE_SIZE - 1) / TILE_SIZE + EXTRA_SLOTS);
+        if (width != mTileWidth || height != mTileHeight) {
+            mTileWidth = width;
+            mTileHeight = height;
+            long tileBytes = Math.max(1L, (long) width * height * 4);
+            int slots = (int) Math.max(visibleSlots, Math.min(MAX_SLOTS, mMaxBytes / tileBytes));
+            mIndices = new int[slots];
+            mBitmaps = new Bitmap[slots];
+            mValid = new boolean[slots];
+            mLastUsed = new long[slots];
+        } else if (visibleSlots > mBitmaps.length) {
+            // 可见区域变长, 保留已缓存的块
+            mIndices = copyOf(mIndices, visibleSlots);
+            Bitmap[] bitmaps = new Bitmap[visibleSlots];
+            System.arraycopy(mBitmaps, 0, bitmaps, 0, mBitmaps.length);
+            mBitmaps = bitmaps;
+            boolean[] valid = new boolean[visibleSlots];
+            System.arraycopy(mValid, 0, valid, 0, mValid.length);
+            mValid = valid;
+            long[] lastUsed = new long[visibleSlots];
+            System.arraycopy(mLastUsed, 0, lastUsed, 0, mLastUsed.length);
+            mLastUsed = lastUsed;
+        }
+    }
+
+    private static int[] copyOf(int[] array, int size) {
+        int[] copy = new int[size];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private int find(int index) {
+        for (int i = 0; i < mValid.length; i++) {
+            if (mValid[i] && mIndices[i] == index) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Bitmap getTile(int index) {
+        int slot = find(index);
+        if (slot < 0) {
+            // 优先使用过期的槽位, 否则淘汰最久未使用的块
+            slot = 0;
+            for (int i = 0; i < mValid.length; i++) {
+                if (!mValid[i]) {
+                    slot = i;
+                    break;
+                }
+                if (mLastUsed[i] < mLastUsed[slot]) {
+                    slot = i;
+                }
+            }
+            if (mBitmaps[slot] == null) {
+                mBitmaps[slot] = Bitmap.createBitmap(mTileWidth, mTileHeight, Bitmap.Config.ARGB_8888);
+            } else {
+                mBitmaps[slot].eraseColor(Color.TRANSPARENT);
+            }
+            renderTile(mBitmaps[slot], index);
+            mIndices[slot] = index;
+            mValid[slot] = true;
+        }
+        mLastUsed[slot] = ++mUseCount;
+        return mBitmaps[slot];
+    }
+
+    private void renderTile(Bitmap tile, int index) {
+        Canvas canvas = mTileCanvas;
+        canvas.setBitmap(tile);
+        int saveCount = canvas.save();
+        int offset = index * TILE_SIZE;
+        if (mView.isHorizontal()) {
+            canvas.translate(-offset, 0);
+        } else {
+            canvas.translate(0, -offset);
+        }
+        mView.drawRuler(canvas);
+        canvas.restoreToCount(saveCount);
+        canvas.setBitmap(null);
+    }
+
+    private static int tileIndex(int position) {
+        int index = position / TILE_SIZE;
+        if (position % TILE_SIZE != 0 && position < 0) {
+            index--;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,224 @@
+package com.lichfaker.scaleview;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+
+/**
+ * 联动的刻度尺: 一把刻度尺滑动时, 其余的按比例跟随滑动
+ * <p>
+ * 所有刻度尺共用一个帧回调(API 16以上随vsync), 每帧先推进正在滑动的那一把, 再把它的滚动偏移按比例换算给其余的,
+ * 拖动时在每个MOVE事件中直接换算. 每把刻度尺每帧只刷新一次, 不需要在监听器中互相调用setCurScale.
+ * 停止后跟随的刻度尺对齐到最近的刻度.
+ * 只能在UI线程中使用
+ */
+public final class ScaleViewLink {
+
+    private static final class Member {
+        final BaseScaleView view;
+        final float ratio;
+        long anchor; //本次联动开始时的逻辑滚动偏移
+        long offset; //最近一次同步后的逻辑滚动偏移
+        float zoom;
+
+        Member(BaseScaleView view, float ratio) {
+            this.view = view;
+            this.ratio = ratio;
+        }
+    }
+
+    private final ArrayList<Member> mMembers = new ArrayList<>();
+    private final FramePacer mPacer;
+    private Member mLeader; //正在滑动的刻度尺, 其余的跟随它
+
+    public ScaleViewLink() {
+        mPacer = FramePacer.create(new Handler(), new Runnable() {
+            @Override
+            public void run() {
+                doFrame();
+            }
+        });
+    }
+
+    /**
+     * 以相同的比例加入联动
+     */
+    public void add(BaseScaleView view) {
+        add(view, 1f);
+    }
+
+    /**
+     * 加入联动, 已经在其他联动中时先从中移除
+     *
+     * @param ratio 滑动比例, 另一把刻度尺滑动d像素时, 这把滑动 d * ratio / 另一把的ratio 像素
+     */
+    public void add(BaseScaleView view, float ratio) {
+        if (!(ratio > 0)) {
+            throw new IllegalArgumentException("ratio must be positive: " + ratio);
+        }
+        if (view.mLink != null) {
+            view.mLink.remove(view);
+        }
+        Member member = new Member(view, ratio);
+        record(member);
+        member.anchor = member.offset;
+        mMembers.add(member);
+        view.mLink = this;
+    }
+
+    public void remove(BaseScaleView view) {
+        Member member = find(view);
+        if (member == null) {
+            return;
+        }
+        mMembers.remove(member);
+        view.mLink = null;
+        if (mLeader == member) {
+            mLeader = null;
+            mPacer.cancel();
+            settle(null);
+        }
+        // 离开联动后由自己推进滑动
+        view.invalidate();
+    }
+
+    /**
+     * 刻度尺在computeScroll中调用: 正在滑动, 或者滚动偏移被手势等直接改变时, 由它带动其余的刻度尺
+     */
+    void onComputeScroll(BaseScaleView view) {
+        Member member = find(view);
+        if (member == null) {
+            return;
+        }
+        if (member.zoom != view.getZoom()) {
+            // 缩放改变了像素间距, 重新记录位置, 不带动其余的刻度尺
+            record(member);
+            reanchor();
+        }
+        if (view.isScrolling() || view.getLogicalScrollOffset() != member.offset) {
+            drive(member);
+        }
+    }
+
+    /**
+     * 刻度尺开始响应手势时调用, 停止其余刻度尺的滑动
+     */
+    void onTouchDown(BaseScaleView view) {
+        Member member = find(view);
+        if (member != null) {
+            drive(member);
+        }
+    }
+
+    /**
+     * 刻度尺被手指拖动后调用, 在同一个事件中带动其余的刻度尺, 不等下一帧
+     */
+    void onDrag(BaseScaleView view) {
+        Member member = find(view);
+        if (member == null) {
+            return;
+        }
+        if (mLeader != member) {
+            drive(member);
+        }
+        follow(member);
+    }
+
+    private void drive(Member leader) {
+        if (mLeader != leader) {
+            if (mLeader != null) {
+                mLeader.view.stopScroll();
+            }
+            mLeader = leader;
+            for (int i = 0, size = mMembers.size(); i < size; i++) {
+                Member member = mMembers.get(i);
+                if (member != leader) {
+                    record(member);
+                }
+            }
+            // 带头的刻度尺可能已经被手势移动过, 从上次同步的位置开始换算
+            reanchor();
+        }
+        mPacer.schedule();
+    }
+
+    private void doFrame() {
+        Member leader = mLeader;
+        if (leader == null) {
+            return;
+        }
+        BaseScaleView view = leader.view;
+        boolean running = view.advanceScroll();
+        follow(leader);
+        view.invalidate();
+        if (running) {
+            mPacer.schedule();
+        } else {
+            mLeader = null;
+            if (!view.isTouching()) {
+                // 手指没有抬起时, 等抬起后的对齐结束再对齐其余的刻度尺
+                settle(leader);
+            }
+        }
+    }
+
+    /**
+     * 把带头的刻度尺从本次联动开始滑过的距离按比例换算给其余的刻度尺
+     */
+    private void follow(Member leader) {
+        BaseScaleView view = leader.view;
+        long offset = view.getLogicalScrollOffset();
+        if (leader.zoom != view.getZoom()) {
+            record(leader);
+            reanchor();
+        }
+        double distance = (offset - leader.anchor) / (double) leader.ratio;
+        for (int i = 0, size = mMembers.size(); i < size; i++) {
+            Member member = mMembers.get(i);
+            if (member == leader) {
+                continue;
+            }
+            member.view.moveToLogicalScrollOffset(member.anchor + Math.round(distance * member.ratio));
+            member.offset = member.view.getLogicalScrollOffset();
+            member.view.invalidate();
+        }
+        leader.offset = offset;
+    }
+
+    /**
+     * 带头的刻度尺停止后, 其余的刻度尺对齐到最近的刻度并回调停止
+     */
+    private void settle(Member leader) {
+        for (int i = 0, size = mMembers.size(); i < size; i++) {
+            Member member = mMembers.get(i);
+            if (member != leader) {
+                member.view.snapToTick();
+                member.view.advanceScroll();
+            }
+            record(member);
+        }
+        reanchor();
+    }
+
+    private void reanchor() {
+        for (int i = 0, size = mMembers.size(); i < size; i++) {
+            Member member = mMembers.get(i);
+            member.anchor = member.offset;
+        }
+    }
+
+    private static void record(Member member) {
+        member.offset = member.view.getLogicalScrollOffset();
+        member.zoom = member.view.getZoom();
+    }
+
+    private Member find(BaseScaleView view) {
+        for (int i = 0, size = mMembers.size(); i < size; i++) {
+            Member member = mMembers.get(i);
+            if (member.view == view) {
+                return member;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lichfaker.scaleview;
+
+/**
+ * 绘制与滑动的性能统计
+ * <p>
+ * 通过{@link BaseScaleView#setMetrics(ScaleViewMetrics)}设置, 未设置时不会有任何统计开销.
+ * 所有回调都在刻度尺所在的线程中执行: 普通的刻度尺为UI线程, {@link ScaleSurfaceView}为它的渲染线程,
+ * 实现应尽量轻量, 在渲染线程中回调时需要自己处理线程安全
+ */
+public interface ScaleViewMetrics {
+
+    /**
+     * 每帧绘制完成
+     *
+     * @param drawNanos   onDraw耗时, 纳秒, 位图缓存模式下包括这一帧重绘缓存块的时间
+     * @param ticksDrawn  这一帧直接绘制的刻度线数量, 位图缓存模式下刻度来自位图, 为0
+     * @param labelsDrawn 这一帧直接绘制的刻度文字数量, 位图缓存模式下为0
+     */
+    void onFrameDrawn(long drawNanos, int ticksDrawn, int labelsDrawn);
+
+    /**
+     * 触发惯性滑动
+     *
+     * @param flingCount 累计的惯性滑动次数
+     */
+    void onFling(int flingCount);
+
+    /**
+     * 手指抬起后滑动停止并对齐到刻度
+     *
+     * @param settleNanos 从ACTION_UP到最终对齐的耗时, 纳秒
+     */
+    void onSettled(long settleNanos);
+
+    /**
+     * 回调了一次OnScrollListener
+     *
+     * @param dispatchCount 累计的回调次数
+     */
+    void onListenerDispatched(int dispatchCount);
+}
@@ -0,0 +1,317 @@
+package com.lichfaker.scaleview;
+
+import android.os.Handler;
+import android.os.Message;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 在后台线程加载{@link TickLabelProvider}的文字
+ * <p>
+ * 已加载的文字保存在有界的LRU中, key为int刻度, 查询不装箱也不分配内存.
+ * 请求放入后进先出的栈, 最新的可见刻度最先加载. 后台线程只加载当前窗口(可见范围和滑动方向前方的一段)内的刻度,
+ * 惯性滑动越过的请求直接取消, 之后再次可见时重新请求.
+ * 除了后台任务, 其余方法都在创建它的线程(View所在的线程)调用
+ */
+final class TickLabelLoader {
+
+    interface Callback {
+        /**
+         * 有新的文字加载完成
+         */
+        void onLabelsLoaded();
+    }
+
+    private static final int MSG_LOADED = 1;
+    private static final int MSG_CANCELLED = 2;
+
+    private static final byte STATE_EMPTY = 0; //未请求或已取消
+    private static final byte STATE_PENDING = 1;
+    private static final byte STATE_READY = 2;
+
+    private final TickLabelProvider mProvider;
+    private final Executor mExecutor;
+    private final Callback mCallback;
+    private final Handler mHandler;
+
+    // LRU, 链表头为最近使用
+    private final int[] mKeys;
+    private final String[] mLabels;
+    private final byte[] mStates;
+    private final int[] mPrev;
+    private final int[] mNext;
+    private final int[] mBuckets; //哈希桶的第一个节点, -1表示空
+    private final int[] mChain; //同一哈希桶的下一个节点
+    private final int mHashShift;
+    private int mSize;
+    private int mHead = -1;
+    private int mTail = -1;
+
+    // 请求栈, 主线程压入, 后台线程弹出, 由自身加锁
+    private final int[] mRequests;
+    private int mRequestTop; //下一个压入的位置
+    private int mRequestCount;
+
+    private volatile int mWindowMin = Integer.MIN_VALUE;
+    private volatile int mWindowMax = Integer.MAX_VALUE;
+    private volatile boolean mReleased;
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+
+    /**
+     * @param capacity LRU中的文字个数
+     */
+    TickLabelLoader(TickLabelProvider provider, Executor executor, Callback callback, int capacity) {
+        mProvider = provider;
+        mExecutor = executor;
+        mCallback = callback;
+        mHandler = new Handler(mResultCallback);
+        mKeys = new int[capacity];
+        mLabels = new String[capacity];
+        mStates = new byte[capacity];
+        mPrev = new int[capacity];
+        mNext = new int[capacity];
+        mChain = new int[capacity];
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity * 2, 2) - 1);
+        mHashShift = 32 - bits;
+        mBuckets = new int[1 << bits];
+        Arrays.fill(mBuckets, -1);
+        mRequests = new int[Math.max(capacity / 2, 8)];
+    }
+
+    /**
+     * 查询刻度的文字, 没有时请求加载
+     *
+     * @return 文字, 还没有准备好时返回null
+     */
+    String get(int scale) {
+        int entry = find(scale);
+        if (entry < 0) {
+            entry = insert(scale);
+        }
+        moveToFront(entry);
+        if (mStates[entry] == STATE_EMPTY) {
+            request(entry);
+        }
+        return mLabels[entry];
+    }
+
+    /**
+     * 更新后台加载的窗口, 并预取滑动方向前方的文字. 窗口之外还没有加载的请求会被取消
+     *
+     * @param first     可见的第一个整刻度
+     * @param last      可见的最后一个刻度
+     * @param step      相邻整刻度的差值
+     * @param direction 滑动方向, 1为刻度增大, -1为减小, 0为静止
+     */
+    void updateWindow(long first, long last, long step, int direction) {
+        if (step <= 0 || last < first) {
+            return;
+        }
+        long span = last - first + step;
+        long min = first - (direction > 0 ? step : (direction < 0 ? span : span / 2));
+        long max = last + (direction < 0 ? step : (direction > 0 ? span : span / 2));
+        mWindowMin = ScaleMath.clampToInt(min);
+        mWindowMax = ScaleMath.clampToInt(max);
+        // 从远到近压入, 近处的先加载; 可见的刻度随后在绘制时压入, 最先加载
+        int limit = mRequests.length / 2;
+        if (direction >= 0) {
+            long start = Math.min(max, last + (long) limit * step);
+            for (long v = first + ScaleMath.floorDiv(start - first, step) * step; v > last; v -= step) {
+                prefetch(v);
+            }
+        }
+        if (direction <= 0) {
+            long start = Math.max(min, first - (long) limit * step);
+            for (long v = first + ScaleMath.ceilDiv(start - first, step) * step; v < first; v += step) {
+                prefetch(v);
+            }
+        }
+    }
+
+    private void prefetch(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return;
+        }
+        int entry = find((int) value);
+        if (entry < 0) {
+            entry = insert((int) value);
+        }
+        if (mStates[entry] == STATE_EMPTY) {
+            request(entry);
+        }
+    }
+
+    /**
+     * 停止加载, 之后到达的结果都会被丢弃
+     */
+    void release() {
+        mReleased = true;
+        synchronized (mRequests) {
+            mRequestCount = 0;
+        }
+        mHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void request(int entry) {
+        mStates[entry] = STATE_PENDING;
+        int dropped;
+        boolean overflow;
+        synchronized (mRequests) {
+            // 栈满时丢弃最早的请求
+            overflow = mRequestCount == mRequests.length;
+            int bottom = mRequestTop - mRequestCount;
+            dropped = mRequests[(bottom + mRequests.length) % mRequests.length];
+            if (!overflow) {
+                mRequestCount++;
+            }
+            mRequests[mRequestTop] = mKeys[entry];
+            mRequestTop = (mRequestTop + 1) % mRequests.length;
+        }
+        if (overflow) {
+            cancel(dropped);
+        }
+        if (mRunning.compareAndSet(false, true)) {
+            mExecutor.execute(mWorker);
+        }
+    }
+
+    private void cancel(int scale) {
+        int entry = find(scale);
+        if (entry >= 0 && mStates[entry] == STATE_PENDING) {
+            mStates[entry] = STATE_EMPTY;
+        }
+    }
+
+    private final Runnable mWorker = new Runnable() {
+        @Override
+        public void run() {
+            while (true) {
+                int scale;
+                synchronized (mRequests) {
+                    if (mRequestCount == 0 || mReleased) {
+                        mRunning.set(false);
+                        return;
+                    }
+                    mRequestTop = (mRequestTop - 1 + mRequests.length) % mRequests.length;
+                    mRequestCount--;
+                    scale = mRequests[mRequestTop];
+                }
+                if (scale < mWindowMin || scale > mWindowMax) {
+                    // 已经滑过, 不再加载
+                    mHandler.obtainMessage(MSG_CANCELLED, scale, 0).sendToTarget();
+                    continue;
+                }
+                String label = mProvider.getLabel(scale);
+                if (!mReleased) {
+                    mHandler.obtainMessage(MSG_LOADED, scale, 0, label).sendToTarget();
+                }
+            }
+        }
+    };
+
+    private final Handler.Callback mResultCallback = new Handler.Callback() {
+        @Override
+        public boolean handleMessage(Message msg) {
+            if (mReleased) {
+                return true;
+            }
+            if (msg.what == MSG_CANCELLED) {
+                cancel(msg.arg1);
+                return true;
+            }
+            int entry = find(msg.arg1);
+            if (entry < 0) {
+                entry = insert(msg.arg1);
+            }
+            mLabels[entry] = (String) msg.obj;
+            mStates[entry] = STATE_READY;
+            mCallback.onLabelsLoaded();
+            return true;
+        }
+    };
+
+    private int bucketOf(int scale) {
+        return (scale * 0x9E3779B9) >>> mHashShift;
+    }
+
+    private int find(int scale) {
+        for (int entry = mBuckets[bucketOf(scale)]; entry >= 0; entry = mChain[entry]) {
+            if (mKeys[entry] == scale) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 放入新的刻度, 已满时淘汰最久未使用的文字
+     */
+    private int insert(int scale) {
+        int entry;
+        if (mSize < mKeys.length) {
+            entry = mSize++;
+        } else {
+            entry = mTail;
+            unlink(entry);
+            removeFromBucket(entry);
+        }
+        mKeys[entry] = scale;
+        mLabels[entry] = null;
+        mStates[entry] = STATE_EMPTY;
+        int bucket = bucketOf(scale);
+        mChain[entry] = mBuckets[bucket];
+        mBuckets[bucket] = entry;
+        linkFirst(entry);
+        return entry;
+    }
+
+    private void removeFromBucket(int entry) {
+        int bucket = bucketOf(mKeys[entry]);
+        if (mBuckets[bucket] == entry) {
+            mBuckets[bucket] = mChain[entry];
+            return;
+        }
+        for (int e = mBuckets[bucket]; e >= 0; e = mChain[e]) {
+            if (mChain[e] == entry) {
+                mChain[e] = mChain[entry];
+                return;
+            }
+        }
+    }
+
+    private void moveToFront(int entry) {
+        if (entry != mHead) {
+            unlink(entry);
+            linkFirst(entry);
+        }
+    }
+
+    private void linkFirst(int entry) {
+        mPrev[entry] = -1;
+        mNext[entry] = mHead;
+        if (mHead >= 0) {
+            mPrev[mHead] = entry;
+        }
+        mHead = entry;
+        if (mTail < 0) {
+            mTail = entry;
+        }
+    }
+
+    private void unlink(int entry) {
+        int prev = mPrev[entry];
+        int next = mNext[entry];
+        if (prev >= 0) {
+            mNext[prev] = next;
+        } else {
+            mHead = next;
+        }
+        if (next >= 0) {
+            mPrev[next] = prev;
+        } else {
+            mTail = prev;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.lichfaker.scaleview;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单生产者单消费者的无锁触摸事件队列
+ * <p>
+ * UI线程写入, 渲染线程读取. 事件的字段保存在创建时分配的数组中, 入队和出队都不会分配内存.
+ * 队列快满时丢弃可丢弃的事件(MOVE), 为按下和抬起保留位置
+ */
+final class TouchQueue {
+
+    private static final int RESERVED = 4; //只留给不可丢弃事件的位置
+
+    private final int mMask;
+    private final int[] mActions;
+    private final float[] mX;
+    private final float[] mY;
+    private final long[] mDownTimes;
+    private final long[] mEventTimes;
+    private final AtomicInteger mHead = new AtomicInteger(); //下一个读取的位置, 只由消费者修改
+    private final AtomicInteger mTail = new AtomicInteger(); //下一个写入的位置, 只由生产者修改
+
+    /**
+     * @param capacity 队列长度, 向上取整为2的幂
+     */
+    TouchQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, RESERVED * 2) - 1) << 1;
+        mMask = size - 1;
+        mActions = new int[size];
+        mX = new float[size];
+        mY = new float[size];
+        mDownTimes = new long[size];
+        mEventTimes = new long[size];
+    }
+
+    int capacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * 写入一个事件, 只能在生产者线程调用
+     *
+     * @param droppable 是否可以在队列快满时丢弃
+     * @return 是否写入
+     */
+    boolean offer(int action, float x, float y, long downTime, long eventTime, boolean droppable) {
+        int tail = mTail.get();
+        int free = capacity() - (tail - mHead.get());
+        if (free <= 0 || (droppable && free <= RESERVED)) {
+            return false;
+        }
+        int slot = tail & mMask;
+        mActions[slot] = action;
+        mX[slot] = x;
+        mY[slot] = y;
+        mDownTimes[slot] = downTime;
+        mEventTimes[slot] = eventTime;
+        // 有序写入, 消费者看到新的tail时一定能看到上面的字段
+        mTail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * 队首事件的位置, 队列为空时返回-1, 只能在消费者线程调用
+     */
+    int peek() {
+        int head = mHead.get();
+        return head == mTail.get() ? -1 : head & mMask;
+    }
+
+    /**
+     * 移除队首事件, 之后该位置可能被生产者覆盖
+     */
+    void remove() {
+        int head = mHead.get();
+        if (head != mTail.get()) {
+            mHead.lazySet(head + 1);
+        }
+    }
+
+    boolean isEmpty() {
+        return mHead.get() == mTail.get();
+    }
+
+    int getAction(int slot) {
+        return mActions[slot];
+    }
+
+    float getX(int slot) {
+        return mX[slot];
+    }
+
+    float getY(int slot) {
+        return mY[slot];
+    }
+
+    long getDownTime(int slot) {
+        return mDownTimes[slot];
+    }
+
+    long getEventTime(int slot) {
+        return mEventTimes[slot];
+    }
+}
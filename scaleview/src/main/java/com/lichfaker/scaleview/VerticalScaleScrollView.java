@@ -3,12 +3,9 @@ package com.lichfaker.scaleview;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Paint;
 import android.os.Build;
 import android.util.AttributeSet;
-import android.view.MotionEvent;
-import android.view.ViewGroup;
 
 /**
  * @author LichFaker on 16/3/12.
@@ -20,6 +17,10 @@ public class VerticalScaleScrollView extends BaseScaleView {
         super(context);
     }
 
+    public VerticalScaleScrollView(Context context, ScaleStyle style) {
+        super(context, style);
+    }
+
     public VerticalScaleScrollView(Context context, AttributeSet attrs) {
         super(context, attrs);
     }
@@ -35,63 +36,49 @@ public class VerticalScaleScrollView extends BaseScaleView {
 
     @Override
     protected void initVar() {
-        mRectHeight = (mMax - mMin) * mScaleMargin;
-        mRectWidth = mScaleHeight * 8;
-        mScaleMaxHeight = mScaleHeight * 2;
+        mRectWidth = mStyle.getCrossSize();
+        mRectHeight = getContentLength();
+    }
+
+    @Override
+    protected boolean isHorizontal() {
+        return false;
+    }
 
-        // 设置layoutParams
-        ViewGroup.MarginLayoutParams lp = new ViewGroup.MarginLayoutParams(mRectWidth, mRectHeight);
-        this.setLayoutParams(lp);
+    @Override
+    protected int getCullPadding() {
+        // 文字在刻度线上下各占一部分
+        return mRectWidth / 4;
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-//        int width = MeasureSpec.makeMeasureSpec(mRectWidth, MeasureSpec.AT_MOST);
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        mScaleScrollViewRange = getMeasuredHeight();
-        mTempScale = mScaleScrollViewRange / mScaleMargin / 2 + mMin;
-        mMidCountScale = mScaleScrollViewRange / mScaleMargin / 2 + mMin;
+        // wrap_content时宽度为刻度尺的宽度, 高度为内容长度(不超过父布局)
+        setMeasuredDimension(resolveSize(mRectWidth, widthMeasureSpec), resolveSize(mRectHeight, heightMeasureSpec));
+        setViewportRange(getMeasuredHeight());
     }
 
     @Override
     protected void onDrawLine(Canvas canvas, Paint paint) {
-        canvas.drawLine(0, 0, 0, mRectHeight, paint);
+        addBaseLine(0, scaleToPosition(mFirstVisibleScale), 0, scaleToPosition(mLastVisibleScale));
     }
 
     @Override
     protected void onDrawScale(Canvas canvas, Paint paint) {
-        paint.setTextSize(mRectWidth / 4);
-
-        for (int i = 0, k = mMin; i <= mMax - mMin; i++) {
-            if (i % 10 == 0) { //整值
-                canvas.drawLine(0, i * mScaleMargin, mScaleMaxHeight, i * mScaleMargin, paint);
-                //整值文字
-                canvas.drawText(String.valueOf(k), mScaleMaxHeight + 40, i * mScaleMargin + paint.getTextSize() / 3, paint);
-                k += 10;
-            } else {
-                canvas.drawLine(0, i * mScaleMargin, mScaleHeight, i * mScaleMargin, paint);
-            }
-        }
+        layoutTicks(0, 1, mScaleHeight, mScaleMaxHeight); //只布局显示的一部分.
+        //整值文字
+        drawLabels(canvas, paint, mScaleMaxHeight + 40, paint.getTextSize() / 3);
     }
 
     @Override
     protected void onDrawPointer(Canvas canvas, Paint paint) {
 
-        paint.setColor(Color.RED);
-
         //每一屏幕刻度的个数/2
-        int countScale = mScaleScrollViewRange / mScaleMargin / 2;
-        //根据滑动的距离，计算指针的位置【指针始终位于屏幕中间】
-        int finalY = mScroller.getFinalY();
-        //滑动的刻度
-        int tmpCountScale = (int) Math.rint((double) finalY / (double) mScaleMargin); //四舍五入取整
-        //总刻度
-        mCountScale = tmpCountScale + countScale + mMin;
-        if (mScrollListener != null) { //回调方法
-            mScrollListener.onScaleScroll(mCountScale);
-        }
-        canvas.drawLine(0, countScale * mScaleMargin + finalY,
-                mScaleMaxHeight + mScaleHeight, countScale * mScaleMargin + finalY, paint);
+        int countScale = mHalfCount;
+        //根据滑动的距离，计算指针的位置【指针始终位于屏幕中间】, 指针处的刻度由滚动状态维护
+        int currY = getScrollY();
+        canvas.drawLine(0, countScale * mScaleMargin + currY,
+                mScaleMaxHeight + mScaleHeight, countScale * mScaleMargin + currY, paint);
 
     }
 
@@ -100,42 +87,12 @@ public class VerticalScaleScrollView extends BaseScaleView {
         if (val < mMin || val > mMax) {
             return;
         }
-        int dy = (val - mCountScale) * mScaleMargin;
-        smoothScrollBy(0, dy);
-    }
-
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        int y = (int) event.getY();
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                if (mScroller != null && !mScroller.isFinished()) {
-                    mScroller.abortAnimation();
-                }
-                mScrollLastX = y;
-                return true;
-            case MotionEvent.ACTION_MOVE:
-                int dataY = mScrollLastX - y;
-                if (mCountScale - mTempScale < 0) { //向下边滑动
-                    if (mCountScale <= mMin && dataY <= 0) //禁止继续向下滑动
-                        return super.onTouchEvent(event);
-                } else if (mCountScale - mTempScale > 0) { //向上边滑动
-                    if (mCountScale >= mMax && dataY >= 0) //禁止继续向上滑动
-                        return super.onTouchEvent(event);
-                }
-                smoothScrollBy(0, dataY);
-                mScrollLastX = y;
-                postInvalidate();
-                mTempScale = mCountScale;
-                return true;
-            case MotionEvent.ACTION_UP:
-                if (mCountScale < mMin) mCountScale = mMin;
-                if (mCountScale > mMax) mCountScale = mMax;
-                int finalY = (mCountScale - mMidCountScale) * mScaleMargin;
-                mScroller.setFinalY(finalY); //纠正指针位置
-                postInvalidate();
-                return true;
+        val = snapScale(val);
+        if (jumpToScale(val)) {
+            postInvalidate();
+            return;
         }
-        return super.onTouchEvent(event);
+        int dy = scaleToPosition(val) - scaleToPosition(mCountScale);
+        smoothScrollBy(0, dy);
     }
 }
@@ -0,0 +1,142 @@
+package com.lichfaker.scaleview;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 圆形刻度盘只绘制可见弧内的刻度, 转动和惯性滑动后对齐到刻度
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class CircularScaleViewTest {
+
+    private static final int SIZE = 600;
+    private static final float TOUCH_RADIUS = 250;
+
+    private CircularScaleView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new CircularScaleView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 1000));
+        view.setTicksPerTurn(360);
+        driver = new ScaleViewDriver(view, SIZE, SIZE);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void drawsVisibleArcFromTablesWithoutAllocation() {
+        assertEquals(360, view.getTicksPerTurn());
+        driver.frame();
+        RecordingCanvas canvas = driver.getCanvas();
+        // 整圈可见时每个刻度只画一次
+        assertTrue("ticks " + canvas.linesDrawn, canvas.linesDrawn <= 360 && canvas.linesDrawn >= 350);
+        assertTrue("drawLines " + canvas.drawLinesCalls, canvas.drawLinesCalls <= 2);
+        assertEquals("base line", 1, canvas.drawArcCalls);
+        assertEquals("pointer", 1, canvas.drawLineCalls);
+
+        view.setSweepAngle(90);
+        driver.frame();
+        assertTrue("ticks " + canvas.linesDrawn, canvas.linesDrawn <= 90);
+
+        // 预热后转动时每帧不分配内存
+        view.setSweepAngle(360);
+        view.smoothScrollBy(2000, 0);
+        driver.settle();
+        assumeTrue(ScaleViewDriver.allocatedBytes() >= 0);
+        view.smoothScrollBy(-1500, 0);
+        int frames = 0;
+        long allocated = 0;
+        while (!driver.isIdle()) {
+            driver.advance();
+            view.computeScroll();
+            long before = ScaleViewDriver.allocatedBytes();
+            driver.draw();
+            allocated += ScaleViewDriver.allocatedBytes() - before;
+            frames++;
+        }
+        assertTrue(frames > 0);
+        assertTrue("allocated " + allocated / frames + " bytes per frame", allocated / frames <= 64);
+    }
+
+    @Test
+    public void rotatingFollowsFingerAroundTheCenter() {
+        // 顺时针转动10度, 刻度盘跟随手指, 指针处的刻度减小10
+        touchAt(MotionEvent.ACTION_DOWN, 0);
+        for (int i = 1; i <= 10; i++) {
+            driver.frame();
+            touchAt(MotionEvent.ACTION_MOVE, i);
+        }
+        releaseAfterPause(10);
+        assertEquals(490, view.mCountScale);
+        assertEquals(view.scrollForScale(490), view.getScrollX());
+
+        // 越过左侧-180度的位置时角度连续
+        touchAt(MotionEvent.ACTION_DOWN, 280);
+        for (int i = 1; i <= 20; i++) {
+            driver.frame();
+            touchAt(MotionEvent.ACTION_MOVE, 280 - i);
+        }
+        releaseAfterPause(260);
+        assertEquals(510, view.mCountScale);
+    }
+
+    @Test
+    public void flingTurnsIntoAngularVelocityAndSnaps() {
+        final List<Integer> settled = new ArrayList<>();
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+        // 逆时针快速转动40度后抬起
+        touchAt(MotionEvent.ACTION_DOWN, 0);
+        for (int i = 1; i <= 4; i++) {
+            driver.frame();
+            touchAt(MotionEvent.ACTION_MOVE, -10 * i);
+        }
+        touchAt(MotionEvent.ACTION_UP, -40);
+        driver.settle();
+
+        assertEquals(1, settled.size());
+        int value = settled.get(0);
+        assertTrue("value " + value, value > 540);
+        assertEquals(value, view.mCountScale);
+        assertEquals(view.scrollForScale(value), view.getScrollX());
+    }
+
+    private void releaseAfterPause(float degrees) {
+        for (int i = 0; i < 20; i++) {
+            driver.frame();
+        }
+        touchAt(MotionEvent.ACTION_MOVE, degrees);
+        touchAt(MotionEvent.ACTION_UP, degrees);
+        driver.settle();
+    }
+
+    /**
+     * 在离圆心TOUCH_RADIUS处触摸, 角度从顶部开始顺时针
+     */
+    private void touchAt(int action, float degrees) {
+        double angle = Math.toRadians(degrees);
+        float x = (float) (SIZE / 2 + TOUCH_RADIUS * Math.sin(angle));
+        float y = (float) (SIZE / 2 - TOUCH_RADIUS * Math.cos(angle));
+        driver.touch(action, x, y);
+    }
+}
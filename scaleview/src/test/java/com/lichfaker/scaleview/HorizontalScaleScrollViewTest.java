@@ -0,0 +1,89 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 水平刻度尺每帧的绘制开销和内存分配
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class HorizontalScaleScrollViewTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void drawCallsPerFrameAreBounded() {
+        driver.frame();
+        assertFrameBounded(driver.getCanvas());
+
+        // 刻度范围变大时每帧的开销不变
+        view.setScaleModel(ScaleModel.ofInt(0, 1000000));
+        view.setCurScale(900000);
+        driver.settle();
+        driver.frame();
+        assertFrameBounded(driver.getCanvas());
+
+        // 滑动过程中每一帧同样有上限
+        view.smoothScrollBy(3000, 0);
+        for (int i = 0; i < 20; i++) {
+            driver.frame();
+            assertFrameBounded(driver.getCanvas());
+        }
+    }
+
+    private void assertFrameBounded(RecordingCanvas canvas) {
+        int visibleTicks = (WIDTH + 2 * view.getCullPadding()) / view.mScaleMargin + 2;
+        assertTrue("drawLines " + canvas.drawLinesCalls, canvas.drawLinesCalls <= 3);
+        assertEquals("pointer", 1, canvas.drawLineCalls);
+        assertTrue("ticks " + canvas.linesDrawn, canvas.linesDrawn <= visibleTicks + 1);
+        assertTrue("labels " + canvas.drawTextCalls, canvas.drawTextCalls <= visibleTicks / 10 + 2);
+        assertEquals(0, canvas.drawBitmapCalls);
+    }
+
+    @Test
+    public void framesDoNotAllocateWhileScrolling() {
+        // 预热: 文字缓存和批量缓冲区在前几帧填满
+        view.smoothScrollBy(3000, 0);
+        driver.settle();
+        view.smoothScrollBy(-3000, 0);
+        driver.settle();
+        assumeTrue(ScaleViewDriver.allocatedBytes() >= 0);
+
+        view.smoothScrollBy(1500, 0);
+        int frames = 0;
+        long allocated = 0;
+        while (!driver.isIdle()) {
+            // scrollTo属于框架的开销, 只统计onDraw
+            driver.advance();
+            view.computeScroll();
+            long before = ScaleViewDriver.allocatedBytes();
+            driver.draw();
+            allocated += ScaleViewDriver.allocatedBytes() - before;
+            frames++;
+        }
+        assertTrue(frames > 0);
+        assertTrue("allocated " + allocated / frames + " bytes per frame", allocated / frames <= 64);
+    }
+}
@@ -0,0 +1,97 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 高亮区间和标记只绘制与可见范围重叠的部分
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RangeOverlayViewTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void rangeOverlayDrawsOnlyVisibleIntervals() throws InterruptedException {
+        // 每10个刻度一个区间, 每100个刻度一个标记
+        RangeOverlay.Builder builder = new RangeOverlay.Builder();
+        for (int value = 0; value < 10000; value += 10) {
+            builder.addRange(value, value + 4, 0x33FF0000);
+            if (value % 100 == 0) {
+                builder.addMarker(value, 0xFF00FF00, "m" + value);
+            }
+        }
+        builder.addRange(0, 10000, 0x1100FF00); //覆盖整个范围
+        view.setRangeOverlayAsync(builder);
+        // 索引在后台线程建立, 完成后回到主线程一次性替换
+        for (int i = 0; i < 500 && view.getRangeOverlay() == null; i++) {
+            Thread.sleep(10);
+            driver.frame();
+        }
+        assertEquals(1001, view.getRangeOverlay().getRangeCount());
+
+        driver.frame();
+        RecordingCanvas canvas = driver.getCanvas();
+        int visible = WIDTH / view.mScaleMargin + 2 * view.getCullPadding() / view.mScaleMargin;
+        assertTrue("rects " + canvas.drawRectCalls,
+                canvas.drawRectCalls >= 2 && canvas.drawRectCalls <= visible / 10 + 3);
+        assertTrue("markers " + canvas.strings, canvas.strings.contains("m500"));
+        assertTrue("markers " + canvas.strings, !canvas.strings.contains("m5000"));
+
+        view.setRangeOverlay(null);
+        driver.frame();
+        assertEquals(0, driver.getCanvas().drawRectCalls);
+    }
+
+    @Test
+    public void overlayFromWorkerThreadIsSwappedOnTheRulerThread() throws InterruptedException {
+        final RuntimeException[] error = new RuntimeException[1];
+        // 服务器更新的回调通常在没有Looper的线程中
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    view.setRangeOverlayAsync(new RangeOverlay.Builder()
+                            .addRange(490, 510, 0x33FF0000)
+                            .addMarker(500, 0xFF00FF00, "now"));
+                } catch (RuntimeException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        worker.start();
+        worker.join();
+        assertNull(error[0]);
+        assertNull(view.getRangeOverlay());
+
+        for (int i = 0; i < 500 && view.getRangeOverlay() == null; i++) {
+            Thread.sleep(10);
+            driver.frame();
+        }
+        assertEquals(1, view.getRangeOverlay().getRangeCount());
+        driver.frame();
+        assertTrue(driver.getCanvas().strings.contains("now"));
+    }
+}
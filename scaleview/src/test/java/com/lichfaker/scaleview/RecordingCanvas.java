@@ -0,0 +1,143 @@
+package com.lichfaker.scaleview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只记录绘制调用次数的Canvas, 用于统计每帧的绘制开销
+ * <p>
+ * 裁剪区域使用内容坐标, 相当于View.draw中已经按滚动偏移平移过的Canvas
+ */
+class RecordingCanvas extends Canvas {
+
+    private final Rect mClip = new Rect();
+
+    int drawLineCalls;
+    int drawLinesCalls;
+    int linesDrawn; //drawLines中的线段数
+    int drawTextCalls;
+    int drawBitmapCalls;
+    int drawArcCalls;
+    int drawRectCalls;
+    final List<String> strings = new ArrayList<>(); //drawText(String)画出的文字
+    final List<Bitmap> bitmaps = new ArrayList<>(); //drawBitmap画出的位图, 按绘制顺序
+
+    RecordingCanvas() {
+        reset();
+    }
+
+    /**
+     * 开始新的一帧, 清空计数和裁剪区域
+     */
+    void reset() {
+        mClip.set(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2);
+        drawLineCalls = 0;
+        drawLinesCalls = 0;
+        linesDrawn = 0;
+        drawTextCalls = 0;
+        drawBitmapCalls = 0;
+        drawArcCalls = 0;
+        drawRectCalls = 0;
+        strings.clear();
+        bitmaps.clear();
+    }
+
+    int getDrawCalls() {
+        return drawLineCalls + drawLinesCalls + drawTextCalls + drawBitmapCalls + drawArcCalls + drawRectCalls;
+    }
+
+    @Override
+    public boolean clipRect(Rect rect) {
+        return mClip.intersect(rect);
+    }
+
+    @Override
+    public boolean clipRect(RectF rect) {
+        return mClip.intersect((int) rect.left, (int) rect.top, (int) rect.right, (int) rect.bottom);
+    }
+
+    @Override
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        return mClip.intersect(left, top, right, bottom);
+    }
+
+    @Override
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        return mClip.intersect((int) left, (int) top, (int) right, (int) bottom);
+    }
+
+    @Override
+    public boolean getClipBounds(Rect bounds) {
+        bounds.set(mClip);
+        return !mClip.isEmpty();
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        drawLineCalls++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        drawLinesCalls++;
+        linesDrawn += count / 4;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        drawLines(pts, 0, pts.length, paint);
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        drawArcCalls++;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        drawRectCalls++;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        drawTextCalls++;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        drawTextCalls++;
+        strings.add(text);
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        drawTextCalls++;
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        drawTextCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        drawBitmapCalls++;
+        bitmaps.add(bitmap);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        drawBitmapCalls++;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        drawBitmapCalls++;
+    }
+}
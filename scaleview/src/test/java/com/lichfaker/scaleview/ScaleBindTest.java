@@ -0,0 +1,63 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 复用的刻度尺绑定新的数据时直接跳转, 不回调
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleBindTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void bindMovesWithoutAnimationOrCallbacks() {
+        final List<Integer> values = new ArrayList<>();
+        view.setOnScrollListener(new BaseScaleView.OnScrollListener() {
+            @Override
+            public void onScaleScroll(int scale) {
+                values.add(scale);
+            }
+        });
+        driver.frame();
+        values.clear();
+
+        view.bind(new ScaleModel(0, 5000, 5, 0, 1, 10), 1234);
+        assertTrue(driver.isIdle());
+        driver.settle();
+        assertEquals(1235, view.mCountScale);
+        assertEquals(view.scrollForScale(1235), view.getScrollX());
+        assertTrue(values.isEmpty());
+
+        // 绑定之后的手势正常回调
+        driver.drag(-300, 15);
+        driver.settle();
+        assertTrue(values.size() > 0);
+        assertEquals(view.mCountScale, (int) values.get(values.size() - 1));
+    }
+}
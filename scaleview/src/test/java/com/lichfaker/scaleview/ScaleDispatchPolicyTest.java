@@ -0,0 +1,88 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 滑动回调的分发策略: 每个刻度只回调一次, 或每次手势停止时回调一次
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleDispatchPolicyTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void changePolicyDeliversEachValueOnce() {
+        final List<Integer> values = new ArrayList<>();
+        view.setOnScrollListener(new BaseScaleView.OnScrollListener() {
+            @Override
+            public void onScaleScroll(int scale) {
+                values.add(scale);
+            }
+        });
+        driver.drag(-300, 15);
+        driver.settle();
+
+        assertTrue(values.size() > 1);
+        for (int i = 1; i < values.size(); i++) {
+            assertNotEquals("repeated " + values, values.get(i - 1), values.get(i));
+        }
+        assertTrue(values.size() <= Math.abs(values.get(values.size() - 1) - 500) + 1);
+        assertEquals(view.mCountScale, (int) values.get(values.size() - 1));
+    }
+
+    @Test
+    public void settlePolicyDeliversOncePerGesture() {
+        final List<Integer> values = new ArrayList<>();
+        final List<Integer> settled = new ArrayList<>();
+        view.setDispatchPolicy(BaseScaleView.DISPATCH_ON_SETTLE);
+        view.setOnScrollListener(new BaseScaleView.OnScrollListener() {
+            @Override
+            public void onScaleScroll(int scale) {
+                values.add(scale);
+            }
+        });
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+
+        driver.drag(-300, 15);
+        driver.settle();
+        assertEquals(1, values.size());
+        assertEquals(values, settled);
+
+        driver.drag(450, 15);
+        driver.settle();
+        assertEquals(2, values.size());
+        assertEquals(values, settled);
+        assertEquals(view.mCountScale, (int) values.get(1));
+    }
+}
@@ -0,0 +1,58 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 拖动时刻度尺直接跟随手指, 不足一像素的移动不会丢失
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleDragTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void dragFollowsFingerWithoutAnimation() {
+        int start = view.getScrollX();
+        driver.down(500);
+        // 不足一像素的移动累计起来, 不会被截断丢掉
+        for (int i = 1; i <= 8; i++) {
+            driver.move(500 - i * 0.25f);
+        }
+        assertEquals(start + 2, view.getScrollX());
+        // 同一个事件内就到达手指的位置, 不需要等动画
+        driver.move(500 - 3 * view.mScaleMargin);
+        assertEquals(start + 3 * view.mScaleMargin, view.getScrollX());
+        assertTrue(driver.isIdle());
+        // 拖过最小刻度时停在边界
+        driver.move(500 + 1000 * view.mScaleMargin);
+        assertEquals(view.scrollForScale(0), view.getScrollX());
+        // 反向拖动时立即跟随手指
+        driver.move(500 - 3 * view.mScaleMargin);
+        assertEquals(view.scrollForScale(1003), view.getScrollX());
+        driver.up(500 - 3 * view.mScaleMargin);
+        driver.settle();
+        assertEquals(1003, view.mCountScale);
+    }
+}
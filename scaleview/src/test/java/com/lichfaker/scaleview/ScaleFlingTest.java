@@ -0,0 +1,76 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 惯性滑动直接停在刻度上, 到达范围两端时停止
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleFlingTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void flingLandsOnTickWithoutCorrection() {
+        final List<Integer> settled = new ArrayList<>();
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+
+        driver.fling(-400, 4);
+        // 一次动画停在刻度上, 中途不会反向纠正
+        int last = view.getScrollX();
+        while (!driver.isIdle()) {
+            driver.frame();
+            assertTrue("moved back at " + view.getScrollX(), view.getScrollX() >= last);
+            last = view.getScrollX();
+        }
+        driver.settle();
+
+        assertEquals(1, settled.size());
+        int value = settled.get(0);
+        // 惯性滑动的距离超过手指移动的距离
+        assertTrue("value " + value, value > 500 + 400 / view.mScaleMargin);
+        assertTrue(view.getScaleModel().isTick(value));
+        assertEquals(value, view.mCountScale);
+        assertEquals(view.scrollForScale(value), view.getScrollX());
+    }
+
+    @Test
+    public void flingStopsAtRangeEnd() {
+        view.setCurScale(9990);
+        driver.settle();
+        driver.fling(-400, 4);
+        driver.settle();
+        assertEquals(10000, view.mCountScale);
+        assertEquals(view.scrollForScale(10000), view.getScrollX());
+    }
+}
@@ -0,0 +1,74 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * 其他线程中的setCurScale每帧只应用最新的一次
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleRequestThreadTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void backgroundSetCurScaleIsAppliedOncePerFrame() throws InterruptedException {
+        final List<Integer> settled = new ArrayList<>();
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+        ScaleValueStream.Subscription subscription = view.getValueStream().subscribe();
+        assertEquals(500, subscription.poll());
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int value = 600; value <= 700; value++) {
+                    view.setCurScale(value);
+                }
+            }
+        });
+        producer.start();
+        producer.join();
+        // 其他线程中只记录请求, 不改变滚动状态
+        assertEquals(500, view.mCountScale);
+        assertFalse(subscription.hasUpdate());
+
+        // 转到UI线程后在下一帧只应用最新的请求
+        driver.frame();
+        driver.frame();
+        driver.settle();
+        assertEquals(700, view.mCountScale);
+        assertEquals(Collections.singletonList(700), settled);
+        assertEquals(700, subscription.poll());
+        assertEquals(700, view.getValueStream().getValue());
+    }
+}
@@ -0,0 +1,114 @@
+package com.lichfaker.scaleview;
+
+import android.view.View;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 共享的样式和资源, 运行时修改范围, 间距和高度
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleStyleTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void reconfigureKeepsValueWithoutNewView() {
+        ScaleStyle style = view.getScaleStyle().buildUpon()
+                .setModel(ScaleModel.ofInt(0, 2000))
+                .setScaleMargin(20)
+                .setScaleHeight(10)
+                .build();
+        view.setScaleStyle(style);
+        // 期望的尺寸改变了, 需要一次布局
+        assertTrue(view.isLayoutRequested());
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        assertEquals(500, view.mCountScale);
+        assertEquals(20, view.mScaleMargin);
+        assertEquals(style.getCrossSize(), view.mRectHeight);
+        assertEquals(2000 * 20, view.mRectWidth);
+        assertEquals(view.scrollForScale(500), view.getScrollX());
+
+        // 当前刻度超出新的范围时停在最近的一端
+        view.setRange(0, 300);
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        assertEquals(300, view.mCountScale);
+        assertEquals(view.scrollForScale(300), view.getScrollX());
+
+        // 内容长度不变时不需要布局
+        view.setScaleStyle(view.getScaleStyle().buildUpon()
+                .setModel(ScaleModel.ofInt(0, 600))
+                .setScaleMargin(10)
+                .build());
+        assertFalse(view.isLayoutRequested());
+        driver.frame();
+        assertEquals(300, view.mCountScale);
+        assertEquals(view.scrollForScale(300), view.getScrollX());
+
+        // 回调和文字都是int, 超出int的范围直接拒绝, 不会截断
+        ScaleModel model = view.getScaleModel();
+        try {
+            view.setRange(0, Integer.MAX_VALUE + 10L);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertSame(model, view.getScaleModel());
+        assertEquals(300, view.mCountScale);
+    }
+
+    @Test
+    public void sameStyleSharesResources() {
+        assertSame(ScaleResources.obtain(40, 0), ScaleResources.obtain(40, 0));
+        assertNotSame(ScaleResources.obtain(40, 0), ScaleResources.obtain(40, 2));
+        assertNotSame(ScaleResources.obtain(40, 0), ScaleResources.obtain(30, 0));
+    }
+
+    @Test
+    public void styleIsSharedAndParentParamsAreKept() {
+        ScaleStyle style = new ScaleStyle.Builder()
+                .setModel(ScaleModel.ofInt(0, 10))
+                .setScaleMargin(10)
+                .setScaleHeight(8)
+                .build();
+        HorizontalScaleScrollView first = new HorizontalScaleScrollView(RuntimeEnvironment.application, style);
+        HorizontalScaleScrollView second = new HorizontalScaleScrollView(RuntimeEnvironment.application, style);
+        assertSame(first.getScaleStyle(), second.getScaleStyle());
+        assertNull(first.getLayoutParams());
+
+        // wrap_content: 宽度为内容长度且不超过父布局, 高度为刻度尺的高度
+        int atMost = View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.AT_MOST);
+        first.measure(atMost, atMost);
+        assertEquals(100, first.getMeasuredWidth());
+        assertEquals(style.getCrossSize(), first.getMeasuredHeight());
+        first.measure(View.MeasureSpec.makeMeasureSpec(50, View.MeasureSpec.AT_MOST), atMost);
+        assertEquals(50, first.getMeasuredWidth());
+    }
+}
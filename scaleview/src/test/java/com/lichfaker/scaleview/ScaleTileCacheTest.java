@@ -0,0 +1,90 @@
+package com.lichfaker.scaleview;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 位图缓存模式下的绘制开销和位图的复用
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleTileCacheTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void cachedTilesDrawWithoutAllocation() {
+        view.setTileCacheEnabled(true);
+        // 块的下标远超Integer的缓存范围
+        view.setCurScale(9000);
+        driver.settle();
+        driver.frame();
+        RecordingCanvas canvas = driver.getCanvas();
+        assertTrue(canvas.drawBitmapCalls > 0);
+        assertEquals(0, canvas.drawLinesCalls);
+        assertTrue(view.getScrollX() / ScaleTileCache.TILE_SIZE > 127);
+
+        assumeTrue(ScaleViewDriver.allocatedBytes() >= 0);
+        long allocated = 0;
+        for (int i = 0; i < 10; i++) {
+            long before = ScaleViewDriver.allocatedBytes();
+            driver.draw();
+            allocated += ScaleViewDriver.allocatedBytes() - before;
+        }
+        assertTrue("allocated " + allocated / 10 + " bytes per frame", allocated / 10 <= 64);
+    }
+
+    @Test
+    public void invalidatedTilesRedrawIntoTheSameBitmaps() {
+        view.setTileCacheEnabled(true);
+        driver.frame();
+        List<Bitmap> drawn = new ArrayList<>(driver.getCanvas().bitmaps);
+        assertTrue(drawn.size() > 0);
+
+        // 内容改变后重绘到原来的位图中, 不创建新的位图
+        for (int i = 0; i < 3; i++) {
+            view.setSeriesStyle(i % 2 == 0 ? BaseScaleView.SERIES_SPARKLINE : BaseScaleView.SERIES_HISTOGRAM);
+            driver.frame();
+            assertEquals(drawn, driver.getCanvas().bitmaps);
+        }
+    }
+
+    @Test
+    public void smallBudgetStillHoldsTheVisibleTiles() {
+        // 字节数上限只够一块, 槽位仍按可见的块数分配, 静止时不会每帧重绘
+        view.setTileCacheMaxBytes(1);
+        driver.frame();
+        List<Bitmap> drawn = new ArrayList<>(driver.getCanvas().bitmaps);
+        assertTrue(drawn.size() > 1);
+        for (int i = 0; i < 3; i++) {
+            driver.frame();
+            assertEquals(drawn, driver.getCanvas().bitmaps);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lichfaker.scaleview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在JVM上模拟一帧帧的绘制和触摸, 驱动computeScroll和onDraw
+ */
+class ScaleViewDriver {
+
+    static final long FRAME_MILLIS = 16;
+    static final int MAX_SETTLE_FRAMES = 600;
+
+    private final BaseScaleView mView;
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+    private long mDownTime;
+
+    ScaleViewDriver(BaseScaleView view, int width, int height) {
+        mView = view;
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, width, height);
+    }
+
+    RecordingCanvas getCanvas() {
+        return mCanvas;
+    }
+
+    /**
+     * 时间前进一帧, 执行到期的回调后滚动并绘制
+     */
+    void frame() {
+        advance();
+        mView.computeScroll();
+        draw();
+    }
+
+    /**
+     * 时间前进一帧并执行到期的回调
+     */
+    void advance() {
+        ShadowLooper.idleMainLooper(FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在新的一帧上调用onDraw
+     */
+    void draw() {
+        mCanvas.reset();
+        mView.onDraw(mCanvas);
+    }
+
+    /**
+     * 一直绘制到滑动和缩放结束
+     *
+     * @return 用掉的帧数
+     */
+    int settle() {
+        int frames = 0;
+        do {
+            frame();
+            frames++;
+        } while (!isIdle() && frames < MAX_SETTLE_FRAMES);
+        // 停止后的一帧用于回调滑动停止
+        frame();
+        return frames;
+    }
+
+    boolean isIdle() {
+        return mView.mScroller.isFinished() && !mView.isZoomAnimating();
+    }
+
+    /**
+     * 沿滚动方向拖动后停住再抬起, 不会触发惯性滑动
+     *
+     * @param distance 手指移动的像素, 正数向右或向下
+     * @param steps    MOVE事件的个数
+     */
+    void drag(int distance, int steps) {
+        int end = moveBy(distance, steps);
+        for (int i = 0; i < 20; i++) {
+            frame();
+        }
+        move(end);
+        up(end);
+    }
+
+    /**
+     * 快速拖动后立即抬起
+     */
+    void fling(int distance, int steps) {
+        up(moveBy(distance, steps));
+    }
+
+    private int moveBy(int distance, int steps) {
+        int start = 500;
+        down(start);
+        for (int i = 1; i <= steps; i++) {
+            frame();
+            move(start + distance * i / steps);
+        }
+        return start + distance;
+    }
+
+    void down(int pos) {
+        touch(MotionEvent.ACTION_DOWN, pos);
+    }
+
+    void move(float pos) {
+        touch(MotionEvent.ACTION_MOVE, pos);
+    }
+
+    void up(float pos) {
+        touch(MotionEvent.ACTION_UP, pos);
+    }
+
+    private void touch(int action, float pos) {
+        float x = mView.isHorizontal() ? pos : 0;
+        float y = mView.isHorizontal() ? 0 : pos;
+        touch(action, x, y);
+    }
+
+    /**
+     * 在任意位置触摸, 用于圆形刻度盘
+     */
+    void touch(int action, float x, float y) {
+        if (action == MotionEvent.ACTION_DOWN) {
+            mDownTime = SystemClock.uptimeMillis();
+        }
+        MotionEvent event = MotionEvent.obtain(mDownTime, SystemClock.uptimeMillis(), action, x, y, 0);
+        mView.onTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * 当前线程已分配的字节数, 不支持时返回-1
+     */
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
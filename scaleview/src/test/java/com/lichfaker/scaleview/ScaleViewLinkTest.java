@@ -0,0 +1,97 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 联动的刻度尺在同一帧中按比例移动
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleViewLinkTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void linkedRulersFollowInTheSameFrame() {
+        HorizontalScaleScrollView other = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        other.setScaleModel(ScaleModel.ofInt(0, 10000));
+        ScaleViewDriver otherDriver = new ScaleViewDriver(other, WIDTH, HEIGHT);
+        otherDriver.frame();
+        other.setCurScale(1000);
+        otherDriver.settle();
+
+        ScaleViewLink link = new ScaleViewLink();
+        link.add(view);
+        link.add(other, 2f);
+        long start = view.getLogicalScrollOffset();
+        long otherStart = other.getLogicalScrollOffset();
+
+        // 拖动时每个MOVE事件都立即带动跟随的刻度尺, 不会落后一帧
+        driver.down(500);
+        for (int i = 1; i <= 4; i++) {
+            driver.frame();
+            otherDriver.draw();
+            driver.move(500 - 100 * i);
+            long moved = view.getLogicalScrollOffset() - start;
+            assertEquals(100 * i, moved);
+            assertEquals(2 * moved, other.getLogicalScrollOffset() - otherStart, 1);
+        }
+        driver.up(100);
+
+        // 惯性滑动时每帧跟随的刻度尺和带头的一起移动, 距离按比例换算
+        int frames = 0;
+        while (!driver.isIdle() && frames++ < 200) {
+            driver.frame();
+            otherDriver.draw();
+            long moved = view.getLogicalScrollOffset() - start;
+            assertEquals(2 * moved, other.getLogicalScrollOffset() - otherStart, 1);
+            assertTrue(otherDriver.isIdle());
+        }
+        driver.settle();
+        otherDriver.draw();
+        // 停止后跟随的刻度尺对齐到刻度
+        int value = view.mCountScale;
+        assertTrue("value " + value, value > 500);
+        assertEquals(1000 + 2 * (value - 500), other.mCountScale, 1);
+        assertEquals(other.scrollForScale(other.mCountScale), other.getScrollX());
+
+        // 拖动跟随的刻度尺时反过来带动
+        start = view.getLogicalScrollOffset();
+        otherStart = other.getLogicalScrollOffset();
+        otherDriver.drag(-20 * other.mScaleMargin, 4);
+        otherDriver.settle();
+        driver.frame();
+        driver.frame();
+        assertEquals(other.getLogicalScrollOffset() - otherStart,
+                2 * (view.getLogicalScrollOffset() - start), 2 * view.mScaleMargin);
+
+        link.remove(other);
+        start = view.getLogicalScrollOffset();
+        other.setCurScale(200);
+        otherDriver.settle();
+        driver.frame();
+        assertEquals(200, other.mCountScale);
+        assertEquals(start, view.getLogicalScrollOffset());
+    }
+}
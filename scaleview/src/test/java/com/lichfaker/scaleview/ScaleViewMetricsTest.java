@@ -0,0 +1,73 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 性能统计只计入这一帧实际绘制的内容
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleViewMetricsTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+    private int ticks;
+    private int labels;
+    private int frames;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+        view.setMetrics(new ScaleViewMetrics() {
+            @Override
+            public void onFrameDrawn(long drawNanos, int ticksDrawn, int labelsDrawn) {
+                ticks = ticksDrawn;
+                labels = labelsDrawn;
+                frames++;
+            }
+
+            @Override
+            public void onFling(int flingCount) {
+            }
+
+            @Override
+            public void onSettled(long settleNanos) {
+            }
+
+            @Override
+            public void onListenerDispatched(int dispatchCount) {
+            }
+        });
+    }
+
+    @Test
+    public void tileFramesCountOnlyWhatTheFrameDrew() {
+        driver.frame();
+        assertEquals(1, frames);
+        assertEquals(driver.getCanvas().linesDrawn - 1, ticks); //减去基线
+        assertEquals(driver.getCanvas().drawTextCalls, labels);
+
+        // 这一帧重绘了缓存块, 但画到屏幕上的只有位图
+        view.setTileCacheEnabled(true);
+        driver.frame();
+        assertTrue(driver.getCanvas().drawBitmapCalls > 0);
+        assertEquals(2, frames);
+        assertEquals(0, ticks);
+        assertEquals(0, labels);
+    }
+}
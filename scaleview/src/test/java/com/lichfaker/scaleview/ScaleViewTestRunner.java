@@ -0,0 +1,32 @@
+package com.lichfaker.scaleview;
+
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.internal.bytecode.InstrumentationConfiguration;
+
+/**
+ * Robolectric自带的ShadowScroller是匀速的假实现, 不支持fling和setFinalX,
+ * 这里让Scroller使用真实的代码, 惯性滑动和对齐与设备上一致.
+ * Choreographer的下一帧等到下一个vsync才执行, 见{@link ShadowVsyncChoreographer}
+ */
+public class ScaleViewTestRunner extends RobolectricTestRunner {
+
+    public ScaleViewTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+    }
+
+    @Override
+    protected InstrumentationConfiguration createClassLoaderConfig(FrameworkMethod method) {
+        return new InstrumentationConfiguration.Builder(super.createClassLoaderConfig(method))
+                .doNotInstrumentClass("android.widget.Scroller")
+                .doNotInstrumentClass("android.widget.OverScroller")
+                .doNotInstrumentClass("android.widget.OverScroller$SplineOverScroller")
+                .build();
+    }
+
+    @Override
+    protected Class<?>[] getExtraShadows(FrameworkMethod frameworkMethod) {
+        return new Class<?>[]{ShadowVsyncChoreographer.class};
+    }
+}
@@ -0,0 +1,70 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 缩放动画中指针刻度不变, 缩小后每帧的刻度线和文字仍有上限
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScaleZoomTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void zoomKeepsPointerValueAndBoundsFrame() {
+        // 动画过程中指针始终指向原来的刻度
+        view.setZoom(0.2f);
+        assertTrue(view.isZoomAnimating());
+        int frames = 0;
+        while (!driver.isIdle()) {
+            driver.frame();
+            assertEquals(500, view.mCountScale);
+            frames++;
+        }
+        assertTrue("frames " + frames, frames > 5);
+        assertEquals(0.2f, view.getZoom(), 0);
+        assertEquals(view.scrollForScale(500), view.getScrollX());
+
+        // 缩小后按层次跳过刻度, 每帧的刻度线和文字仍有上限
+        view.setZoom(0.01f, false);
+        view.smoothScrollBy(3000, 0);
+        int minTickSpacing = BaseScaleView.dpToPx(4);
+        for (int i = 0; i < 20; i++) {
+            driver.frame();
+            RecordingCanvas canvas = driver.getCanvas();
+            assertTrue("drawLines " + canvas.drawLinesCalls, canvas.drawLinesCalls <= 3);
+            assertTrue("ticks " + canvas.linesDrawn, canvas.linesDrawn <= (WIDTH + 2 * view.getCullPadding()) / minTickSpacing + 2);
+            assertTrue("labels " + canvas.drawTextCalls, canvas.drawTextCalls <= 20);
+            assertTrue(canvas.linesDrawn > 0);
+        }
+        driver.settle();
+
+        // 放大回来后对齐到刻度
+        view.setZoom(1);
+        driver.settle();
+        assertEquals(1f, view.getZoom(), 0);
+        assertEquals(view.scrollForScale(view.mCountScale), view.getScrollX());
+    }
+}
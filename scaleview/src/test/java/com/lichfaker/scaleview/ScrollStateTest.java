@@ -0,0 +1,86 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 滚动状态在触摸和computeScroll中更新, 绘制只读取状态
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScrollStateTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void scrollStateUpdatesWithoutDrawing() {
+        final List<Integer> values = new ArrayList<>();
+        final List<Integer> settled = new ArrayList<>();
+        view.setOnScrollListener(new BaseScaleView.OnScrollListener() {
+            @Override
+            public void onScaleScroll(int scale) {
+                values.add(scale);
+            }
+        });
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+        // 拖动后立即得到新的刻度, 不需要等下一次绘制
+        driver.down(500);
+        driver.move(500 - 3 * view.mScaleMargin);
+        assertEquals(503, view.mCountScale);
+        assertEquals(Collections.singletonList(503), values);
+        // 拖过最小刻度时停在边界
+        driver.move(500 + 1000 * view.mScaleMargin);
+        assertEquals(0, view.mCountScale);
+        assertEquals(view.scrollForScale(0), view.getScrollX());
+        driver.move(500 - 20 * view.mScaleMargin);
+        driver.up(500 - 40 * view.mScaleMargin);
+
+        // 惯性滑动和对齐只推进Scroller, 不绘制
+        int frames = 0;
+        while (!driver.isIdle() && frames++ < ScaleViewDriver.MAX_SETTLE_FRAMES) {
+            driver.advance();
+            view.computeScroll();
+        }
+        view.computeScroll();
+        assertEquals(1, settled.size());
+        int value = settled.get(0);
+        assertEquals(value, view.mCountScale);
+        assertEquals(value, (int) values.get(values.size() - 1));
+        assertEquals(view.scrollForScale(value), view.getScrollX());
+
+        // 绘制只读取状态, 不会改变刻度或回调
+        int count = values.size();
+        driver.draw();
+        driver.draw();
+        assertEquals(count, values.size());
+        assertEquals(value, view.mCountScale);
+    }
+}
@@ -0,0 +1,93 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 沿刻度绘制的数据序列, 每帧的线段数不超过可见像素
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SeriesOverlayTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void seriesOverlayCostsOneBatchOfVisiblePixels() throws InterruptedException {
+        view.setScaleModel(ScaleModel.ofInt(0, 2000000));
+        float[] volume = new float[2000001];
+        for (int i = 0; i < volume.length; i++) {
+            volume[i] = i % 1000;
+        }
+        view.setSeries(0, volume);
+        // 金字塔在后台线程建立, 完成后回到主线程
+        for (int i = 0; i < 500 && view.getSeries() == null; i++) {
+            Thread.sleep(10);
+            driver.frame();
+        }
+        assertTrue(view.getSeries() != null);
+
+        for (float zoom : new float[]{1f, 0.1f, 0.01f}) {
+            view.setZoom(zoom, false);
+            view.setCurScale(1500000);
+            driver.settle();
+            driver.frame();
+            RecordingCanvas canvas = driver.getCanvas();
+            // 数据序列多一次drawLines, 线段数不超过可见像素
+            assertEquals(4, canvas.drawLinesCalls);
+            assertTrue("lines " + canvas.linesDrawn, canvas.linesDrawn <= 2 * (WIDTH + 2 * view.getCullPadding()));
+        }
+
+        view.setSeries(null);
+        driver.frame();
+        assertTrue(driver.getCanvas().drawLinesCalls <= 3);
+    }
+
+    @Test
+    public void seriesFromWorkerThreadIsAppliedOnTheRulerThread() throws InterruptedException {
+        final RuntimeException[] error = new RuntimeException[1];
+        // 没有Looper的线程, 例如服务器更新的回调
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    view.setSeries(0, new long[]{1, 5, 3});
+                } catch (RuntimeException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        worker.start();
+        worker.join();
+        assertNull(error[0]);
+        assertNull(view.getSeries());
+
+        for (int i = 0; i < 500 && view.getSeries() == null; i++) {
+            Thread.sleep(10);
+            driver.frame();
+        }
+        assertEquals(3, view.getSeries().size());
+        assertEquals(5, view.getSeries().getMax(), 0);
+    }
+}
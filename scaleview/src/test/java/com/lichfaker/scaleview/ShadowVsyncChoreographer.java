@@ -0,0 +1,35 @@
+package com.lichfaker.scaleview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowChoreographer;
+
+/**
+ * Robolectric自带的Choreographer在回调中请求下一帧时立即再次执行, 时间不前进.
+ * 这里与设备上一样, 在帧回调中请求的下一帧等到下一个vsync才执行
+ */
+@Implements(Choreographer.class)
+public class ShadowVsyncChoreographer extends ShadowChoreographer {
+
+    private final Handler mHandler = new Handler(Looper.myLooper());
+
+    @Implementation
+    public void postFrameCallbackDelayed(final Choreographer.FrameCallback callback, long delayMillis) {
+        mHandler.postAtTime(new Runnable() {
+            @Override
+            public void run() {
+                callback.doFrame(SystemClock.uptimeMillis() * 1000000);
+            }
+        }, callback, SystemClock.uptimeMillis() + Math.max(delayMillis, ScaleViewDriver.FRAME_MILLIS));
+    }
+
+    @Implementation
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        mHandler.removeCallbacksAndMessages(callback);
+    }
+}
@@ -0,0 +1,97 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 不均匀的可选刻度: 只停在可选刻度上, 数量很多时每帧的开销不变
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SnapPointsViewTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void snapPointsLimitWhereTheRulerStops() {
+        final int[] packs = {1, 2, 5, 12, 24, 48};
+        final List<Integer> settled = new ArrayList<>();
+        view.setScaleModel(ScaleModel.ofInt(0, 50));
+        view.setSnapPoints(packs);
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+
+        view.setCurScale(10);
+        driver.settle();
+        assertEquals(12, view.mCountScale);
+        // 只在可选刻度上画刻度线, 有文字的刻度另外画一条整刻度线, 加上基线
+        driver.frame();
+        assertTrue(driver.getCanvas().linesDrawn <= 2 * packs.length + 1);
+
+        driver.drag(-4 * view.mScaleMargin, 4);
+        driver.settle();
+        driver.fling(-300, 4);
+        driver.settle();
+        driver.fling(600, 4);
+        driver.settle();
+        assertTrue(settled.size() >= 2);
+        for (int value : settled) {
+            assertTrue("settled on " + value, Arrays.binarySearch(packs, value) >= 0);
+        }
+        assertEquals(view.scrollForScale(view.mCountScale), view.getScrollX());
+
+        // 数万个可选刻度时每帧的开销不变
+        long[] many = new long[40000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = i * 5L + (i % 4);
+        }
+        view.setScaleModel(ScaleModel.ofInt(0, 200000));
+        view.setSnapPoints(many);
+        view.setCurScale(100004);
+        driver.settle();
+        assertEquals(100006, view.mCountScale);
+        view.setZoom(0.05f, false);
+        view.smoothScrollBy(3000, 0);
+        for (int i = 0; i < 10; i++) {
+            driver.frame();
+            RecordingCanvas canvas = driver.getCanvas();
+            assertTrue("ticks " + canvas.linesDrawn,
+                    canvas.linesDrawn <= 2 * ((WIDTH + 2 * view.getCullPadding()) / BaseScaleView.dpToPx(4) + 2));
+            assertTrue("labels " + canvas.drawTextCalls, canvas.drawTextCalls <= 20);
+        }
+        driver.settle();
+        settled.clear();
+        driver.fling(-300, 4);
+        driver.settle();
+        assertEquals(1, settled.size());
+        assertTrue("settled on " + settled.get(0), Arrays.binarySearch(many, settled.get(0)) >= 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 异步加载的刻度文字: 后台线程计算, 预取两侧, 跳过滑过的刻度
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class TickLabelProviderTest {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 160;
+
+    private HorizontalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new HorizontalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void asyncLabelsLoadInBackgroundAndSkipOvershotTicks() {
+        final List<Integer> requested = new ArrayList<>();
+        final List<Runnable> tasks = new ArrayList<>();
+        view.setTickLabelProvider(new TickLabelProvider() {
+            @Override
+            public String getLabel(int scale) {
+                requested.add(scale);
+                return "$" + scale;
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+
+        // 第一帧只画占位符, 不在主线程计算文字
+        driver.frame();
+        List<String> strings = driver.getCanvas().strings;
+        assertTrue(strings.size() > 0);
+        for (String label : strings) {
+            assertEquals("…", label);
+        }
+        assertTrue(requested.isEmpty());
+
+        runTasks(tasks);
+        driver.frame();
+        strings = driver.getCanvas().strings;
+        assertTrue(strings.contains("$500"));
+        assertTrue(!strings.contains("…"));
+        // 静止时两侧各预取半屏, 每个刻度只加载一次
+        int visible = WIDTH / view.mScaleMargin;
+        assertTrue(Collections.min(requested) < 500 - visible / 2);
+        assertTrue(Collections.max(requested) > 500 + visible / 2);
+        assertEquals(requested.size(), new HashSet<>(requested).size());
+
+        // 滑过的刻度在后台线程执行前就被取消
+        requested.clear();
+        view.setCurScale(5000);
+        driver.settle();
+        runTasks(tasks);
+        for (int scale : requested) {
+            assertTrue("loaded " + scale, scale > 5000 - 2 * visible);
+        }
+        driver.frame();
+        assertTrue(driver.getCanvas().strings.contains("$5000"));
+
+        // 恢复同步文字
+        view.setTickLabelProvider(null);
+        driver.frame();
+        assertTrue(driver.getCanvas().strings.isEmpty());
+    }
+
+    private void runTasks(List<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+        driver.advance();
+    }
+}
@@ -0,0 +1,97 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 触摸事件队列: 顺序, 环形复用和为按下/抬起保留的位置
+ */
+public class TouchQueueTest {
+
+    private static final int DOWN = 0;
+    private static final int UP = 1;
+    private static final int MOVE = 2;
+
+    @Test
+    public void capacityIsRoundedToPowerOfTwo() {
+        assertEquals(128, new TouchQueue(100).capacity());
+        assertEquals(128, new TouchQueue(128).capacity());
+        assertEquals(8, new TouchQueue(1).capacity());
+    }
+
+    @Test
+    public void eventsComeOutInOrderAcrossWraparound() {
+        TouchQueue queue = new TouchQueue(8);
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                int n = round * 3 + i;
+                assertTrue(queue.offer(MOVE, n, -n, 1, n, true));
+            }
+            for (int i = 0; i < 3; i++) {
+                int slot = queue.peek();
+                assertTrue(slot >= 0);
+                assertEquals(next, queue.getX(slot), 0);
+                assertEquals(-next, queue.getY(slot), 0);
+                assertEquals(next, queue.getEventTime(slot));
+                queue.remove();
+                next++;
+            }
+            assertTrue(queue.isEmpty());
+            assertEquals(-1, queue.peek());
+        }
+    }
+
+    @Test
+    public void movesAreDroppedBeforeDownAndUp() {
+        TouchQueue queue = new TouchQueue(8);
+        assertTrue(queue.offer(DOWN, 0, 0, 0, 0, false));
+        int moves = 0;
+        while (queue.offer(MOVE, 0, 0, 0, 0, true)) {
+            moves++;
+        }
+        assertEquals(3, moves);
+        // 保留的位置只给不可丢弃的事件
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(UP, 0, 0, 0, 0, false));
+        }
+        assertFalse(queue.offer(UP, 0, 0, 0, 0, false));
+        queue.remove();
+        assertFalse(queue.offer(MOVE, 0, 0, 0, 0, true));
+        assertTrue(queue.offer(UP, 0, 0, 0, 0, false));
+    }
+
+    @Test
+    public void consumerThreadSeesEveryNonDroppableEvent() throws InterruptedException {
+        final TouchQueue queue = new TouchQueue(16);
+        final int count = 100000;
+        final long[] sum = new long[1];
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int seen = 0;
+                while (seen < count) {
+                    int slot = queue.peek();
+                    if (slot < 0) {
+                        Thread.yield();
+                        continue;
+                    }
+                    sum[0] += queue.getEventTime(slot);
+                    queue.remove();
+                    seen++;
+                }
+            }
+        });
+        consumer.start();
+        for (int i = 1; i <= count; i++) {
+            while (!queue.offer(UP, 0, 0, 0, i, false)) {
+                Thread.yield();
+            }
+        }
+        consumer.join();
+        assertEquals((long) count * (count + 1) / 2, sum[0]);
+    }
+}
@@ -0,0 +1,88 @@
+package com.lichfaker.scaleview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 垂直刻度尺每帧的绘制开销, 回调次数, 抬起和惯性滑动后的对齐
+ */
+@RunWith(ScaleViewTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class VerticalScaleScrollViewTest {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 1280;
+
+    private VerticalScaleScrollView view;
+    private ScaleViewDriver driver;
+
+    @Before
+    public void setUp() {
+        view = new VerticalScaleScrollView(RuntimeEnvironment.application);
+        view.setScaleModel(ScaleModel.ofInt(0, 10000));
+        driver = new ScaleViewDriver(view, WIDTH, HEIGHT);
+        driver.frame();
+        view.setCurScale(500);
+        driver.settle();
+    }
+
+    @Test
+    public void drawCallsPerFrameAreBounded() {
+        view.smoothScrollBy(0, 3000);
+        for (int i = 0; i < 20; i++) {
+            driver.frame();
+            RecordingCanvas canvas = driver.getCanvas();
+            int visibleTicks = (HEIGHT + 2 * view.getCullPadding()) / view.mScaleMargin + 2;
+            assertTrue("drawLines " + canvas.drawLinesCalls, canvas.drawLinesCalls <= 3);
+            assertEquals("pointer", 1, canvas.drawLineCalls);
+            assertTrue("ticks " + canvas.linesDrawn, canvas.linesDrawn <= visibleTicks + 1);
+            assertTrue("labels " + canvas.drawTextCalls, canvas.drawTextCalls <= visibleTicks / 10 + 2);
+        }
+    }
+
+    @Test
+    public void dragSnapsToTickAndSettlesOnce() {
+        final List<Integer> settled = new ArrayList<>();
+        view.setOnScaleSettledListener(new BaseScaleView.OnScaleSettledListener() {
+            @Override
+            public void onScaleSettled(int scale) {
+                settled.add(scale);
+            }
+        });
+
+        driver.drag(-307, 15);
+        driver.settle();
+
+        assertEquals(1, settled.size());
+        int value = settled.get(0);
+        assertEquals(500 + Math.round(307f / view.mScaleMargin), value);
+        assertEquals(value, view.mCountScale);
+        assertEquals(view.scrollForScale(value), view.getScrollY());
+    }
+
+    @Test
+    public void flingLandsOnTickWithoutCorrection() {
+        driver.fling(400, 4);
+        int last = view.getScrollY();
+        while (!driver.isIdle()) {
+            driver.frame();
+            assertTrue("moved back at " + view.getScrollY(), view.getScrollY() <= last);
+            last = view.getScrollY();
+        }
+        driver.settle();
+
+        int value = view.mCountScale;
+        assertTrue("value " + value, value < 500 - 400 / view.mScaleMargin);
+        assertTrue(view.getScaleModel().isTick(value));
+        assertEquals(view.scrollForScale(value), view.getScrollY());
+    }
+}